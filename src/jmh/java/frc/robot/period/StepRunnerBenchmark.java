@@ -0,0 +1,51 @@
+package frc.robot.period;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Step Runner Benchmark
+ * <p>
+ * Times one loop of autonomous step dispatch. The table mixes the kinds of steps the sequences
+ * use, with counters in place of subsystem actions, and jumps back to the start so it never runs
+ * out. Steps have no messages, logging is timed with the logger.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StepRunnerBenchmark {
+    private static final double PERIOD = 0.02;
+
+    private final StepRunner mRunner = new StepRunner();
+    private Step[] mSteps;
+    private double mTimestamp = 0.0;
+    private int mActions = 0;
+    private int mChecks = 0;
+
+    @Setup
+    public void setup() {
+        mSteps = new Step[] {
+            Step.run(null, () -> mActions++),
+            Step.run(null, () -> mActions++).forTime(0.1),
+            Step.run(null, () -> mActions++).until(() -> (++mChecks & 7) == 0, 1.0),
+            Step.run(null, () -> mActions++).until(() -> (++mChecks & 3) == 0, 1.0).after(0.04),
+            Step.jumpIf(() -> false, 0, null, () -> mActions++),
+            Step.jumpIf(() -> true, 0, null, () -> mActions++)
+        };
+        mRunner.start(mSteps);
+    }
+
+    @Benchmark
+    public int dispatch() {
+        mTimestamp += PERIOD;
+        mRunner.run(mTimestamp);
+        return mRunner.getIndex();
+    }
+}
@@ -0,0 +1,67 @@
+package frc.robot.period;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.hal.HAL;
+import frc.robot.subsystem.Chassis;
+
+/**
+ * Teleoperated Drive Benchmark
+ * <p>
+ * Times the stick to drive power step Teleoperated runs each loop, in each drive mode, through
+ * the same method the period calls. Recorded-looking stick readings stand in for the controller.
+ * The HAL is started in simulation, since driving loads the Chassis and its hardware.
+ * <p>
+ * The drive mode is taken by name, since JMH generates its harness in another package, where the
+ * drive mode enum cannot be seen.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TeleopDriveBenchmark {
+    private static final int READING_COUNT = 1024;
+    private static final double SPEED_MULTIPLIER = 0.8;
+
+    @Param({"TANK_DRIVE", "CHEEZY_DRIVE", "ARCADE_DRIVE"})
+    public String modeName;
+
+    private Teleoperated.DriveMode mMode;
+
+    private final double[] mThrottle = new double[READING_COUNT];
+    private final double[] mSteering = new double[READING_COUNT];
+    private int mIndex = 0;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+
+        //Throttle sweeps slowly while steering wiggles, roughly how a driver crosses the field
+        for(int i = 0; i < READING_COUNT; i++){
+            mThrottle[i] = Math.sin(2.0 * Math.PI * i / READING_COUNT);
+            mSteering[i] = 0.6 * Math.sin(14.0 * Math.PI * i / READING_COUNT);
+        }
+
+        mMode = Teleoperated.DriveMode.valueOf(modeName);
+        Teleoperated.configDriveMode(mMode);
+    }
+
+    @Benchmark
+    public double drive() {
+        mIndex = (mIndex + 1) & (READING_COUNT - 1);
+        double throttle = mThrottle[mIndex];
+        double steering = mSteering[mIndex];
+
+        //Each mode reads its own sticks, so every stick gets a reading
+        Teleoperated.drive(mMode, steering, throttle, steering, throttle - steering, (mIndex & 255) < 32, SPEED_MULTIPLIER);
+        return Chassis.getDrivePower_L() - Chassis.getDrivePower_R();
+    }
+}
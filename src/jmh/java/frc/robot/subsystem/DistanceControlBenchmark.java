@@ -0,0 +1,57 @@
+package frc.robot.subsystem;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.hal.HAL;
+
+/**
+ * Distance Control Benchmark
+ * <p>
+ * Times the profiled drive distance step the Chassis runs each loop, through the Chassis itself:
+ * sample the profile, feedforward, PID, clamp, and heading correction. The measured distance and
+ * heading trail the move with a little error, in place of the encoders and gyro. The HAL is
+ * started in simulation, since the Chassis owns hardware and the PID times its settling off the
+ * robot clock.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DistanceControlBenchmark {
+    private static final double PERIOD = 0.02;
+    private static final double DISTANCE = 120.0;
+
+    private double mLength = 0.0;
+    private double mTime = 0.0;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+
+        Chassis.configPIDs();
+        mLength = Chassis.predictDistanceTime(DISTANCE);
+        Chassis.goToDistance(DISTANCE, Chassis.DistanceControl.PROFILED);
+    }
+
+    @Benchmark
+    public double profiledStep() {
+        //Run the move over and over
+        mTime += PERIOD;
+        if(mTime > mLength){
+            mTime = 0.0;
+            Chassis.goToDistance(DISTANCE, Chassis.DistanceControl.PROFILED);
+        }
+
+        double distance = DISTANCE * mTime / mLength - 0.5 * Math.sin(mTime);
+        double angle = 2.0 * Math.sin(3.0 * mTime);
+        Chassis.calculateProfiledPower(mTime, distance, angle);
+        return Chassis.getDrivePower_L() - Chassis.getDrivePower_R();
+    }
+}
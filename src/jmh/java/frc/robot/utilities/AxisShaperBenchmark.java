@@ -0,0 +1,51 @@
+package frc.robot.utilities;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Axis Shaper Benchmark
+ * <p>
+ * Times shaping one stick reading, against the inline squared curve it replaced. Run with the gc
+ * profiler, gc.alloc.rate.norm should read zero bytes per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AxisShaperBenchmark {
+    //Readings sweeping back and forth across the stick, so the deadband, curve, and rate limit all get used
+    private static final int READING_COUNT = 1024;
+
+    private final double[] mReadings = new double[READING_COUNT];
+    private final AxisShaper shpThrottle = new AxisShaper(0.08, 0.02);
+    private int mIndex = 0;
+
+    @Setup
+    public void setup() {
+        for(int i = 0; i < READING_COUNT; i++)
+            mReadings[i] = Math.sin(2.0 * Math.PI * i / READING_COUNT);
+
+        shpThrottle.configCurve(2.0);
+        shpThrottle.configRateLimit(4.0);
+    }
+
+    @Benchmark
+    public double shape() {
+        mIndex = (mIndex + 1) & (READING_COUNT - 1);
+        return shpThrottle.calculate(mReadings[mIndex], 0.8);
+    }
+
+    @Benchmark
+    public double inlineSquared() {
+        mIndex = (mIndex + 1) & (READING_COUNT - 1);
+        double reading = mReadings[mIndex];
+        return Math.signum(reading) * (reading * reading) * 0.8;
+    }
+}
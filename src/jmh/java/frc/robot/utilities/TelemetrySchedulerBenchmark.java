@@ -0,0 +1,53 @@
+package frc.robot.utilities;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import frc.robot.utilities.TelemetryScheduler.Rate;
+
+/**
+ * Telemetry Scheduler Benchmark
+ * <p>
+ * Times one loop of dashboard publishing, with about as many values as the robot registers.
+ * Sinks only keep the last value in place of NetworkTables, so this times the scheduling, not
+ * the network. Sources drift every loop, so the deadbands and the per-loop cap both get used.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TelemetrySchedulerBenchmark {
+    private static final int DOUBLE_COUNT = 24;
+    private static final int BOOLEAN_COUNT = 8;
+
+    private final TelemetryScheduler schTelemetry = new TelemetryScheduler(12);
+    private final double[] mPublished = new double[DOUBLE_COUNT + BOOLEAN_COUNT];
+    private long mCycle = 0;
+
+    @Setup
+    public void setup() {
+        Rate[] rates = Rate.values();
+
+        for(int i = 0; i < DOUBLE_COUNT; i++){
+            final int index = i;
+            schTelemetry.addDouble(value -> mPublished[index] = value, () -> Math.sin((mCycle + index) * 0.05) * 100.0, rates[i % rates.length], 0.5);
+        }
+        for(int i = 0; i < BOOLEAN_COUNT; i++){
+            final int index = DOUBLE_COUNT + i;
+            schTelemetry.addBoolean(value -> mPublished[index] = value ? 1.0 : 0.0, () -> ((mCycle >> 4) + index & 1) == 0, rates[i % rates.length]);
+        }
+    }
+
+    @Benchmark
+    public int publish() {
+        mCycle++;
+        schTelemetry.periodic();
+        return schTelemetry.getLastPublishCount();
+    }
+}
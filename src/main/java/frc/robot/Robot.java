@@ -4,12 +4,9 @@
 
 package frc.robot;
 
-import edu.wpi.first.cameraserver.CameraServer;
-import edu.wpi.first.cscore.UsbCamera;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.wpilibj.TimedRobot;
-import frc.molib.buttons.ButtonManager;
 import frc.robot.period.Autonomous;
 import frc.robot.period.Disabled;
 import frc.robot.period.Teleoperated;
@@ -17,19 +14,32 @@ import frc.robot.period.Test;
 import frc.robot.subsystem.Chassis;
 import frc.robot.subsystem.Elevator;
 import frc.robot.subsystem.Manipulator;
+import frc.robot.utilities.AsyncLogger;
+import frc.robot.utilities.CameraStream;
+import frc.robot.utilities.Controllers;
+import frc.robot.utilities.LoopProfiler;
+import frc.robot.utilities.MatchLog;
+import frc.robot.utilities.OutputCache;
+import frc.robot.utilities.TelemetryScheduler;
+import frc.robot.utilities.LoopProfiler.Phase;
 
 /**
  * The VM is configured to automatically run this class, and to call the functions corresponding to
  * each mode, as described in the TimedRobot documentation. If you change the name of this class or
  * the package after creating this project, you must also update the build.gradle file in the
  * project.
+ * <p>
+ * Each loop runs in four phases: sense reads every sensor and controller, decide runs the
+ * period, act has the subsystems write their outputs, and publish sends telemetry and logs.
+ * Periods only decide, they never call subsystem periodics themselves.
  */
 public class Robot extends TimedRobot {
     public static final NetworkTable tblMain = NetworkTableInstance.getDefault().getTable("MO Data");
     public static final NetworkTable tblPeriod = tblMain.getSubTable("Period");
     public static final NetworkTable tblSubsystem = tblMain.getSubTable("Subsystem");
 
-    public static UsbCamera camMain;
+    /** Publishes dashboard entries by rate tier, at most 12 per loop. */
+    public static final TelemetryScheduler schTelemetry = new TelemetryScheduler(12);
 
     /**
      * This function is run when the robot is first started up and should be used for any
@@ -37,62 +47,109 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void robotInit() {
-        //TODO: Add console logging of each step
-        //Wait for NetworkTables connection4
-        while(!NetworkTableInstance.getDefault().isConnected());
-
-        //Initialize Dashboard values
-        Chassis.initDashboard();
-        Elevator.initDashboard();
-        Manipulator.initDashboard();
-        Disabled.initDashboard();
-        Autonomous.initDashboard();
-        Teleoperated.initDashboard();
-        Test.initDashboard();
-
-        Chassis.init();
-        Elevator.init();
-        Manipulator.init();
-
-        try{
-            camMain = CameraServer.startAutomaticCapture("Main Camera", 0);
-            camMain.setFPS(10);
-            camMain.setResolution(128, 80);
-        } finally {
-            //Just ignore camera if it fails
-        }
+        AsyncLogger.start();
+
+        //Configure hardware, the gyro and dashboard finish on their own once this returns
+        Startup.run();
+
+        //The camera opens and runs on its own thread
+        CameraStream.start();
+    }
+
+    @Override
+    protected void loopFunc() {
+        LoopProfiler.beginCycle();
+
+        sense();
+
+        //Decide, TimedRobot runs the period, then robotPeriodic acts and publishes
+        super.loopFunc();
+        LoopProfiler.endCycle(getPeriod());
     }
 
     @Override
     public void robotPeriodic() {
-        ButtonManager.updateValues();
+        Startup.periodic();
+
+        act();
+        publish();
+    }
+
+    /** Sample every sensor and controller once, before anything reads them this loop. */
+    private static void sense() {
+        LoopProfiler.start(Phase.SENSORS);
+        Chassis.updateInputs();
+        Elevator.updateInputs();
+        LoopProfiler.stop(Phase.SENSORS);
+
+        LoopProfiler.start(Phase.CONTROLLERS);
+        Controllers.update();
+        LoopProfiler.stop(Phase.CONTROLLERS);
+    }
+
+    /** Run subsystem control and write outputs, with what the period decided this loop. */
+    public static void act() {
+        Chassis.periodic();
+        Elevator.periodic();
+        Manipulator.periodic();
+    }
+
+    /** Send telemetry and record the log, so both show this loop's decisions and outputs. */
+    private static void publish() {
+        LoopProfiler.start(Phase.DASHBOARD);
         /*Autonomous.pushDashboardValues();
         Disabled.pushDashboardValues();
         Teleoperated.pushDashboardValues(); */
         Test.pushDashboardValues();
-        Chassis.pushDashboardValues();
-        Elevator.pushDashboardValues();
         Manipulator.pushDashboardValues();
+        schTelemetry.periodic();
+        OutputCache.pushDashboardValues();
+        LoopProfiler.stop(Phase.DASHBOARD);
+
+        LoopProfiler.start(Phase.LOG);
+        MatchLog.beginCycle();
+        Chassis.pushLogValues();
+        Elevator.pushLogValues();
+        Autonomous.pushLogValues();
+        LoopProfiler.stop(Phase.LOG);
+    }
+
+    @Override
+    public void simulationInit() {
+        Chassis.simulationInit();
+        Elevator.simulationInit();
+    }
+
+    @Override
+    public void simulationPeriodic() {
+        //The lift model is stepped by the Elevator control loop
+        Chassis.simulationPeriodic();
     }
 
     @Override
     public void autonomousInit() {
+        Startup.bindDashboard();
         Autonomous.init();
     }
 
     @Override
     public void autonomousPeriodic() {
+        LoopProfiler.start(Phase.PERIOD);
         Autonomous.periodic();
+        LoopProfiler.stop(Phase.PERIOD);
     }
 
     @Override
     public void teleopInit() {
+        Startup.bindDashboard();
         Teleoperated.init();
     }
 
     @Override
     public void teleopPeriodic() {
+        LoopProfiler.start(Phase.PERIOD);
         Teleoperated.periodic();
+        LoopProfiler.stop(Phase.PERIOD);
     }
 
     @Override
@@ -102,16 +159,21 @@ public class Robot extends TimedRobot {
 
     @Override
     public void disabledPeriodic() {
+        LoopProfiler.start(Phase.PERIOD);
         Disabled.periodic();
+        LoopProfiler.stop(Phase.PERIOD);
     }
 
     @Override
     public void testInit() {
+        Startup.bindDashboard();
         Test.init();
     }
 
     @Override
     public void testPeriodic() {
+        LoopProfiler.start(Phase.PERIOD);
         Test.periodic();
+        LoopProfiler.stop(Phase.PERIOD);
     }
 }
@@ -0,0 +1,175 @@
+package frc.robot;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Timer;
+import frc.molib.dashboard.Entry;
+import frc.molib.utilities.Console;
+import frc.robot.period.Autonomous;
+import frc.robot.period.Disabled;
+import frc.robot.period.Teleoperated;
+import frc.robot.period.Test;
+import frc.robot.subsystem.Chassis;
+import frc.robot.subsystem.Elevator;
+import frc.robot.subsystem.Manipulator;
+import frc.robot.utilities.MatchLog;
+import frc.robot.utilities.SensorSampler;
+
+/**
+ * The Startup Pipeline
+ * <p>
+ * Brings the robot up without blocking on anything it does not need yet. Subsystem hardware is
+ * configured in parallel, the gyro calibrates in the background, and the dashboard is bound once
+ * NetworkTables connects or a period first needs it. How long each stage took is logged and
+ * published so slow boots can be tracked down.
+ */
+public class Startup {
+
+    /** Stages of robot startup. */
+    public enum Stage {
+        HARDWARE("Hardware"),
+        GYRO("Gyro"),
+        DASHBOARD("Dashboard");
+
+        public final String label;
+        private Stage(String label) {
+            this.label = label;
+        }
+
+        @Override public String toString() {
+            return label;
+        }
+    }
+
+    //Network Table
+    private static final NetworkTable tblStartup = Robot.tblMain.getSubTable("Startup");
+
+    //Dashboard Entries
+    private static final Entry<Double> entHardware_Ready = new Entry<Double>(tblStartup, Stage.HARDWARE.label + " Ready");
+    private static final Entry<Double> entGyro_Ready = new Entry<Double>(tblStartup, Stage.GYRO.label + " Ready");
+    private static final Entry<Double> entDashboard_Ready = new Entry<Double>(tblStartup, Stage.DASHBOARD.label + " Ready");
+
+    //Start time of the pipeline
+    private static double mStartTime = 0.0;
+    private static boolean mIsDashboardBound = false;
+
+    /** Do not make an instance of the startup pipeline. */
+    private Startup(){}
+
+    /**
+     * Configure subsystem hardware in parallel and start gyro calibration in the background.
+     * Returns once every subsystem is configured, and rethrows the failure if one could not be.
+     */
+    public static void run() {
+        mStartTime = Timer.getFPGATimestamp();
+
+        //The simulated gyro has nothing to calibrate, so there is no point waiting on a thread
+        if(RobotBase.isReal()){
+            Thread thdGyro = new Thread(() -> {
+                Chassis.initGyro();
+                report(Stage.GYRO);
+            }, "Gyro Calibration");
+            thdGyro.setDaemon(true);
+            thdGyro.start();
+        } else {
+            Chassis.initGyro();
+            report(Stage.GYRO);
+        }
+
+        runInParallel(new String[] {"Chassis", "Elevator", "Manipulator"}, Chassis::init, Elevator::init, Manipulator::init);
+        SensorSampler.start(Chassis::sampleSensors);
+        Elevator.startControlLoop();
+
+        MatchLog.start();
+        Chassis.initLog();
+        Elevator.initLog();
+        Autonomous.initLog();
+        report(Stage.HARDWARE);
+    }
+
+    /** Bind the dashboard as soon as NetworkTables connects. */
+    public static void periodic() {
+        if(!mIsDashboardBound && NetworkTableInstance.getDefault().isConnected())
+            bindDashboard();
+    }
+
+    /**
+     * Set up every dashboard option, if that has not happened yet. Periods call this before
+     * reading their choosers so they never start without a selection, even with no dashboard.
+     */
+    public static void bindDashboard() {
+        if(mIsDashboardBound) return;
+        mIsDashboardBound = true;
+
+        Chassis.initDashboard();
+        Elevator.initDashboard();
+        Manipulator.initDashboard();
+        Disabled.initDashboard();
+        Autonomous.initDashboard();
+        Teleoperated.initDashboard();
+        Test.initDashboard();
+
+        report(Stage.DASHBOARD);
+    }
+
+    /**
+     * Run tasks on their own threads and wait for all of them to finish. If any task throws,
+     * every failure is logged and the first is rethrown once all of them are done, so startup
+     * never carries on with half configured hardware.
+     * @param labels Name of each task, for the thread and the log
+     * @param tasks Tasks to run
+     */
+    private static void runInParallel(String[] labels, Runnable... tasks) {
+        Thread[] threads = new Thread[tasks.length];
+        Throwable[] failures = new Throwable[tasks.length];
+        for(int i = 0; i < tasks.length; i++){
+            final int index = i;
+            threads[i] = new Thread(() -> {
+                try{
+                    tasks[index].run();
+                } catch(Throwable e){
+                    failures[index] = e;
+                }
+            }, "Startup " + labels[i]);
+            threads[i].start();
+        }
+
+        for(Thread thread : threads){
+            try{
+                thread.join();
+            } catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        //Joining makes the failures visible here
+        Throwable failure = null;
+        for(int i = 0; i < tasks.length; i++){
+            if(failures[i] == null) continue;
+            Console.logMsg("Startup: " + labels[i] + " failed to configure, " + failures[i]);
+            if(failure == null) failure = failures[i];
+            else failure.addSuppressed(failures[i]);
+        }
+        if(failure == null) return;
+
+        Console.logMsg("Startup: " + Stage.HARDWARE.label + " failed after " + String.format("%.2f", Timer.getFPGATimestamp() - mStartTime) + "s");
+        if(failure instanceof Error) throw (Error)failure;
+        throw (RuntimeException)failure;
+    }
+
+    /**
+     * Log and publish how long it took a stage to be ready.
+     * @param stage Stage that is ready
+     */
+    private static void report(Stage stage) {
+        double elapsed = Timer.getFPGATimestamp() - mStartTime;
+        Console.logMsg("Startup: " + stage.label + " ready after " + String.format("%.2f", elapsed) + "s");
+        switch(stage){
+            case HARDWARE: entHardware_Ready.set(elapsed); break;
+            case GYRO: entGyro_Ready.set(elapsed); break;
+            case DASHBOARD: entDashboard_Ready.set(elapsed); break;
+            default:
+        }
+    }
+}
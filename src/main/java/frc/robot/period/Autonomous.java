@@ -8,11 +8,11 @@ import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
-import frc.molib.utilities.Console;
 import frc.robot.Robot;
 import frc.robot.subsystem.Chassis;
 import frc.robot.subsystem.Elevator;
 import frc.robot.subsystem.Manipulator;
+import frc.robot.utilities.MatchLog;
 
 /**
  * The Autonomous Period
@@ -44,1027 +44,121 @@ public class Autonomous {
      */
     private enum Sequence{
         /** Do absolutely nothing. Do not move or score. Just sit there and look pretty. */
-        NOTHING("Do Nothing"){
-            @Override public void run() {
-                switch(mStage){
-                    case 0:
-                        Chassis.disable();
-                        Elevator.disable();
-                        Manipulator.disable();
-                        mStage++;
-                        break;
-                    default:
-                        Chassis.disable();
-                        Elevator.disable();
-                        Manipulator.disable();
-                }
+        NOTHING("Do Nothing",
+            new Step[] {
+                Step.hold(Autonomous::disableAll)
             }
-        },
-        JUST_DRIVE("Just Drive"){
-            @Override public void run() {
-                switch(mStartingPosition){
-                    case WALL:
-                        switch(mStage){
-                            case 0:
-                                Console.logMsg("Starting Sequence \"" + Sequence.JUST_DRIVE.toString() + "\" - " + StartingPosition.WALL.toString());
-                                mStage++;
-                                break;
-                            case 1:
-                                Console.logMsg("Starting drive backward...");
-                                Chassis.goToDistance(mWallReverseDistance);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 2:
-                                if(Chassis.isAtDistance() || tmrStageTimeOut.get() > 2.5) mStage++;                             
-                                break;
-                            case 3:
-                                Console.logMsg("Time reached. Stopping drive...");
-                                Chassis.disable();
-                                mStage++;
-                                break;
-                            case 4:
-                                Console.logMsg("Sequence Complete \"" + Sequence.JUST_DRIVE.toString() + "\" - " + StartingPosition.WALL.toString());
-                                mStage++;
-                                break;
-                            default:
-                                Chassis.disable();
-                                Elevator.disable();
-                                Manipulator.disable();
-                                } break;
-                    case CHARGE_STATION:
-                        switch(mStage){
-                            case 0:
-                                Console.logMsg("Starting Sequence \"" + Sequence.JUST_DRIVE.toString() + "\" - " + StartingPosition.CHARGE_STATION.toString());
-                                mStage++;
-                                break;
-                            case 1:
-                                Console.logMsg("Waiting...");
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 2:
-                            //FIXME: Make this an actual time
-                                if(tmrStageTimeOut.get() > 0.0){
-                                    mStage++;
-                                };
-                                break;
-                            case 3:
-                                Console.logMsg("Starting drive backward...");
-                                Chassis.goToDistance(mChargeBalanceDistance);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 4:
-                                if(Chassis.isAtDistance() || tmrStageTimeOut.get() > 2.5) mStage++;                             
-                                break;
-                            case 5:
-                                Console.logMsg("Sequence Complete \"" + Sequence.JUST_DRIVE.toString() + "\" - " + StartingPosition.CHARGE_STATION.toString());
-                                mStage++;
-                                break;
-                            default:
-                                Elevator.disable();
-                                Manipulator.disable();
-                        } break;
-                    case LOADING:
-                        switch(mStage){
-                            case 0:
-                                Console.logMsg("Starting Sequence \"" + Sequence.JUST_DRIVE.toString() + "\" - " + StartingPosition.LOADING.toString());
-                                mStage++;
-                                break;
-                            case 1:
-                                Console.logMsg("Starting drive backward...");
-                                Chassis.goToDistance(mLoadingReverseDistance);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 2:
-                                if(Chassis.isAtDistance() || tmrStageTimeOut.get() > 2.5) mStage++;                             
-                                break;
-                            case 3:
-                                Console.logMsg("Time reached. Stopping drive...");
-                                Chassis.disable();
-                                mStage++;
-                                break;
-                            case 4:
-                                Console.logMsg("Sequence Complete \"" + Sequence.JUST_DRIVE.toString() + "\" - " + StartingPosition.LOADING.toString());
-                                mStage++;
-                                break;
-                            default:
-                                Chassis.disable();
-                                Elevator.disable();
-                                Manipulator.disable();
-                        } break;
-                    default:
-                        Chassis.disable();
-                        Elevator.disable();
-                        Manipulator.disable();
-                }
+        ),
+        JUST_DRIVE("Just Drive",
+            driveOut(mWallReverseDistance),
+            new Step[] {
+                //FIXME: Make this an actual time
+                Step.log("Waiting...").forTime(0.0),
+                Step.run("Starting drive backward...", () -> Chassis.goToDistance(mChargeBalanceDistance)).until(Chassis::isAtDistance, driveTimeout(mChargeBalanceDistance, 2.5)),
+                Step.hold(Autonomous::disableMechanisms)
+            },
+            driveOut(mLoadingReverseDistance)
+        ),
+        LOW_SCORE("Low Score",
+            concat(scoreLow(), scoreFromGrid(mWallReverseDistance, -168.00, 168.00, false)),
+            concat(scoreLow(), new Step[] {
+                //FIXME: Make this an actual time
+                Step.log("Waiting...").forTime(0.0),
+                Step.run("Starting drive backwards to park...", () -> Chassis.goToDistance(mChargeBalanceDistance)).until(Chassis::isAtDistance, driveTimeout(mChargeBalanceDistance, 5.0)),
+                Step.hold(Autonomous::disableMechanisms)
+            }),
+            concat(scoreLow(), scoreFromGrid(mLoadingReverseDistance, 168.00, -168.00, false))
+        ),
+        HIGH_SCORE_CUBE("High Score Cube",
+            concat(scoreHigh("Starting drive backwards, opening claw, retracting arm...", -.15), scoreFromGrid(mWallReverseDistance, 180.00, -180.00, true)),
+            //FIXME: Make this an actual time
+            concat(scoreHigh("Starting drive backwards, opening claw, retracting arm...", 0.0), parkOnChargeStation(4.0, 3.00)),
+            concat(scoreHigh("Starting drive backwards, opening claw, retracting arm...", -.15), scoreFromGrid(mLoadingReverseDistance, 180.00, -180.00, true))
+        ),
+        FIX_THAT_WHOLE_BALANCE_THING("Fix that whole balance thing",
+            new Step[] {
+                Step.run("Starting drive backward...", () -> Chassis.goToDistance(mChargeBalanceDistance)).until(Chassis::isAtDistance, driveTimeout(mChargeBalanceDistance, 3.0)),
+                //The Chassis keeps balancing through the hold, even if it runs out of time here
+                Step.run("Balancing...", Chassis::balance).until(Chassis::isBalanced, 10.0),
+                Step.log("Balanced."),
+                Step.hold(Autonomous::disableMechanisms)
             }
-        },
-        LOW_SCORE("Low Score"){
-            @Override public void run() {
-                switch(mStartingPosition){
-                    case WALL:
-                        switch(mStage){
-                            case 0:
-                                Console.logMsg("Starting Sequence \"" + Sequence.LOW_SCORE.toString() + "\" - " + StartingPosition.WALL.toString());
-                                mStage++;
-                                break;
-                            case 1:
-                                Console.logMsg("Extending arm...");
-                                Manipulator.extendArm();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 2:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;
-                                break;
-                            case 3:
-                                Console.logMsg("Opening claw...");
-                                Manipulator.openGrip();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 4:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;
-                                break;
-                            case 5:
-                                Console.logMsg("Retracting arm...");
-                                Manipulator.retractArm();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 6:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;
-                                break;
-                            case 7:
-                                Console.logMsg("Starting drive backwards...");
-                                Chassis.goToDistance(mWallReverseDistance);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 8:
-                                if(Chassis.isAtDistance() || tmrStageTimeOut.get() > 3.0) mStage++;                             
-                                break;
-                            case 9:
-                                Console.logMsg("Distance reached. Starting turn...");
-                                if (mAlliance == Alliance.Red){
-                                    Chassis.goToAngle(-168.00);
-                                } else {
-                                    Chassis.goToAngle(168.00);
-                                }
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 10:
-                                if(Chassis.isAtAngle() || tmrStageTimeOut.get() > 3.0) mStage++;                             
-                                break;
-                            case 11:
-                                Console.logMsg("Angle reached. Extending arm...");
-                                Manipulator.extendArm();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 12:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;                             
-                                break;
-                            case 13:
-                                Console.logMsg("Starting drive forward...");
-                                Chassis.goToDistance(24.00);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 14:
-                                if(Chassis.isAtDistance() || tmrStageTimeOut.get() > 1.0) mStage++;                             
-                                break;
-                            case 15:
-                                Console.logMsg("Distance reached. Stopping drive...");
-                                Chassis.disable();
-                                mStage++;
-                                break;
-                            case 16:
-                                Console.logMsg("Sequence Complete \"" + Sequence.LOW_SCORE.toString() + "\" - " + StartingPosition.WALL.toString());
-                                mStage++;
-                                break;
-                            default:
-                                Chassis.disable();
-                                Elevator.disable();
-                                Manipulator.disable();
-                        } break;
-                    case CHARGE_STATION:
-                        switch(mStage){
-                            case 0:
-                                Console.logMsg("Starting Sequence \"" + Sequence.LOW_SCORE.toString() + "\" - " + StartingPosition.CHARGE_STATION.toString());
-                                mStage++;
-                                break;
-                            case 1:
-                                Console.logMsg("Extending arm...");
-                                Manipulator.extendArm();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 2:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;
-                                break;
-                            case 3:
-                                Console.logMsg("Opening claw...");
-                                Manipulator.openGrip();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 4:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;
-                                break;
-                            case 5:
-                                Console.logMsg("Retracting arm...");
-                                Manipulator.retractArm();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 6:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;
-                                break;
-                            case 7:
-                                Console.logMsg("Waiting...");
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 8:
-                            //FIXME: Make this an actual time
-                                if(tmrStageTimeOut.get() > 0.0){
-                                    mStage++;
-                                };
-                                break;
-                            case 9:
-                                Console.logMsg("Starting drive backwards to park...");
-                                Chassis.goToDistance(mChargeBalanceDistance);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 10:
-                                if(Chassis.isAtDistance() || tmrStageTimeOut.get() > 5.0) mStage++;                             
-                                break;
-                            case 11:
-                                Console.logMsg("Sequence Complete \"" + Sequence.LOW_SCORE.toString() + "\" - " + StartingPosition.CHARGE_STATION.toString());
-                                mStage++;
-                                break;
-                            default:
-                                Elevator.disable();
-                                Manipulator.disable();
-                        } break;
-                    case LOADING:
-                        switch(mStage){
-                            case 0:
-                                Console.logMsg("Starting Sequence \"" + Sequence.LOW_SCORE.toString() + "\" - " + StartingPosition.LOADING.toString());
-                                mStage++;
-                                break;
-                            case 1:
-                                Console.logMsg("Extending arm...");
-                                Manipulator.extendArm();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 2:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;
-                                break;
-                            case 3:
-                                Console.logMsg("Opening claw...");
-                                Manipulator.openGrip();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 4:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;
-                                break;
-                            case 5:
-                                Console.logMsg("Retracting arm...");
-                                Manipulator.retractArm();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 6:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;
-                                break;
-                            case 7:
-                                Console.logMsg("Starting drive backwards...");
-                                Chassis.goToDistance(mLoadingReverseDistance);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 8:
-                                if(Chassis.isAtDistance() || tmrStageTimeOut.get() > 3.0) mStage++;                             
-                                break;
-                            case 9:
-                                Console.logMsg("Distance reached. Starting turn...");
-                                if (mAlliance == Alliance.Red){
-                                    Chassis.goToAngle(168.00);
-                                } else {
-                                    Chassis.goToAngle(-168.00);
-                                }
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 10:
-                                if(Chassis.isAtAngle() || tmrStageTimeOut.get() > 3.0) mStage++;                             
-                                break;
-                            case 11:
-                                Console.logMsg("Angle reached. Extending arm...");
-                                Manipulator.extendArm();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 12:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;                             
-                                break;
-                            case 13:
-                                Console.logMsg("Starting drive forward...");
-                                Chassis.goToDistance(24.00);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 14:
-                                if(Chassis.isAtDistance() || tmrStageTimeOut.get() > 1.0) mStage++;                             
-                                break;
-                            case 15:
-                                Console.logMsg("Distance reached. Stopping drive...");
-                                Chassis.disable();
-                                mStage++;
-                                break;
-                            case 16:
-                                Console.logMsg("Sequence Complete \"" + Sequence.LOW_SCORE.toString() + "\" - " + StartingPosition.LOADING.toString());
-                                mStage++;
-                                break;
-                            default:
-                                Chassis.disable();
-                                Elevator.disable();
-                                Manipulator.disable();
-                        } break;
-                    default:
-                        Chassis.disable();
-                        Elevator.disable();
-                        Manipulator.disable();
-                }
-            }
-        },
-        HIGH_SCORE_CUBE("High Score Cube"){
-            @Override public void run() {
-                switch(mStartingPosition){
-                    case WALL:
-                        switch(mStage){
-                            case 0:
-                                Console.logMsg("Starting Sequence \"" + Sequence.HIGH_SCORE_CUBE.toString() + "\" - " + StartingPosition.WALL.toString());
-                                mStage++;
-                                break;
-                            case 1:
-                                Console.logMsg("Elevator to high position...");
-                                Elevator.goToHeight(Elevator.Height.HIGH);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 2:
-                                if(Elevator.isAtHeight() || tmrStageTimeOut.get() > 1.5) mStage++;
-                                break;
-                            case 3:
-                                Console.logMsg("Extending arm... \"");
-                                Manipulator.extendArm();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 4:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;
-                                break;
-                            case 5:
-                                Console.logMsg("Starting drive backwards, opening claw, retracting arm...");
-                                Chassis.resetDistance();
-                                Manipulator.retractArm();
-                                Manipulator.openGrip();
-                                Chassis.setDrive(-.15, -.15);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 6:
-                                if(tmrStageTimeOut.get() > .5) mStage++;                             
-                                break;
-                            case 7:
-                                Console.logMsg("Returning elevator to bottom... \"");
-                                Elevator.goToHeight(Elevator.Height.BOTTOM);
-                                Chassis.disable();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                            case 8:
-                                if(Elevator.isLiftAtBottom() || tmrStageTimeOut.get() > 2.0) mStage++;
-                                break;
-                            case 9:
-                                Console.logMsg("Starting drive backwards and closing grip...");
-                                Chassis.goToDistance(mWallReverseDistance - Chassis.getDistance());
-                                Manipulator.closeGrip();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 10:
-                                if(Chassis.isAtDistance() || tmrStageTimeOut.get() > 3.0) mStage++;                             
-                                break;
-                            case 11:
-                                Console.logMsg("Distance reached. Starting turn...");
-                                if (mAlliance == Alliance.Red){
-                                    Chassis.goToAngle(180.00);
-                                } else {
-                                    Chassis.goToAngle(-180.00);
-                                }
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 12:
-                                if(Chassis.isAtAngle() || tmrStageTimeOut.get() > 3.0) mStage++;                             
-                                break;
-                            case 13:
-                                Console.logMsg("Angle reached. Opening claw and extending arm...");
-                                Manipulator.openGrip();
-                                Manipulator.extendArm();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 14:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;                             
-                                break;
-                            case 15:
-                                Console.logMsg("Starting drive forward...");
-                                Chassis.goToDistance(24.00);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 16:
-                                if(Chassis.isAtDistance() || tmrStageTimeOut.get() > 1.0) mStage++;                             
-                                break;
-                            case 17:
-                                Console.logMsg("Distance reached. Stopping drive...");
-                                Chassis.disable();
-                                mStage++;
-                                break;
-                            case 18:
-                                Console.logMsg("Sequence Complete \"" + Sequence.HIGH_SCORE_CUBE.toString() + "\" - " + StartingPosition.WALL.toString());
-                                mStage++;
-                                break;
-                            default:
-                                Chassis.disable();
-                                Elevator.disable();
-                                Manipulator.disable();
-                        } break;
-                    case CHARGE_STATION:
-                        switch(mStage){
-                            case 0:
-                                Console.logMsg("Starting Sequence \"" + Sequence.HIGH_SCORE_CUBE.toString() + "\" - " + StartingPosition.CHARGE_STATION.toString());
-                                mStage++;
-                                break;
-                            case 1:
-                                Console.logMsg("Elevator to high position...");
-                                Elevator.goToHeight(Elevator.Height.HIGH);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 2:
-                                if(Elevator.isAtHeight() || tmrStageTimeOut.get() > 1.5) mStage++;
-                                break;
-                            case 3:
-                                Console.logMsg("Extending arm... \"");
-                                Manipulator.extendArm();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 4:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;
-                                break;
-                            case 5:
-                                Console.logMsg("Starting drive backwards, opening claw, retracting arm...");
-                                Chassis.resetDistance();
-                                Manipulator.retractArm();
-                                Manipulator.openGrip();
-                                Chassis.setDrive(0.0, 0.0);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 6:
-                                if(tmrStageTimeOut.get() > .5) mStage++;                             
-                                break;
-                            case 7:
-                                Console.logMsg("Returning elevator to bottom... \"");
-                                Elevator.goToHeight(Elevator.Height.BOTTOM);
-                                Chassis.disable();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                            case 8:
-                                if(Elevator.isLiftAtBottom() || tmrStageTimeOut.get() > 2.0) mStage++;
-                                break;
-                            case 9:
-                                Console.logMsg("Waiting...");
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 10:
-                            //FIXME: Make this an actual time
-                                if(tmrStageTimeOut.get() > 4.0){
-                                    mStage++;
-                                };
-                                break;
-                            case 11:
-                                Console.logMsg("Starting drive backwards to park and closing grip...");
-                                if(DriverStation.getAlliance() == DriverStation.Alliance.Red){
-                                    Chassis.goToDistance(mChargeBalanceDistance - Chassis.getDistance() + 3.00);
-                                } else {
-                                    Chassis.goToDistance(mChargeBalanceDistance - Chassis.getDistance());
-                                }
-                                Manipulator.closeGrip();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 12:
-                                if(Chassis.isAtDistance() || tmrStageTimeOut.get() > 5.0) mStage++;                             
-                                break;
-                            case 13:
-                                Console.logMsg("Sequence Complete \"" + Sequence.HIGH_SCORE_CUBE.toString() + "\" - " + StartingPosition.CHARGE_STATION.toString());
-                                mStage++;
-                                break;
-                            default:
-                                Elevator.disable();
-                                Manipulator.disable();
-                        } break;
-                    case LOADING:
-                        switch(mStage){
-                            case 0:
-                                Console.logMsg("Starting Sequence \"" + Sequence.HIGH_SCORE_CUBE.toString() + "\" - " + StartingPosition.LOADING.toString());
-                                mStage++;
-                                break;
-                            case 1:
-                                Console.logMsg("Elevator to high position...");
-                                Elevator.goToHeight(Elevator.Height.HIGH);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 2:
-                                if(Elevator.isAtHeight() || tmrStageTimeOut.get() > 1.5) mStage++;
-                                break;
-                            case 3:
-                                Console.logMsg("Extending arm... \"");
-                                Manipulator.extendArm();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 4:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;
-                                break;
-                            case 5:
-                                Console.logMsg("Starting drive backwards, opening claw, retracting arm...");
-                                Chassis.resetDistance();
-                                Manipulator.retractArm();
-                                Manipulator.openGrip();
-                                Chassis.setDrive(-.15, -.15);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 6:
-                                if(tmrStageTimeOut.get() > .5) mStage++;                             
-                                break;
-                            case 7:
-                                Console.logMsg("Returning elevator to bottom... \"");
-                                Elevator.goToHeight(Elevator.Height.BOTTOM);
-                                Chassis.disable();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                            case 8:
-                                if(Elevator.isLiftAtBottom() || tmrStageTimeOut.get() > 2.0) mStage++;
-                                break;
-                            case 9:
-                                Console.logMsg("Starting drive backwards and closing grip...");
-                                Chassis.goToDistance(mLoadingReverseDistance - Chassis.getDistance());
-                                Manipulator.closeGrip();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 10:
-                                if(Chassis.isAtDistance() || tmrStageTimeOut.get() > 3.0) mStage++;                             
-                                break;
-                            case 11:
-                                Console.logMsg("Distance reached. Starting turn...");
-                                if (mAlliance == Alliance.Red){
-                                    Chassis.goToAngle(180.00);
-                                } else {
-                                    Chassis.goToAngle(-180.00);
-                                }
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 12:
-                                if(Chassis.isAtAngle() || tmrStageTimeOut.get() > 3.0) mStage++;                             
-                                break;
-                            case 13:
-                                Console.logMsg("Angle reached. Opening claw and extending arm...");
-                                Manipulator.openGrip();
-                                Manipulator.extendArm();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 14:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;                             
-                                break;
-                            case 15:
-                                Console.logMsg("Starting drive forward...");
-                                Chassis.goToDistance(24.00);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 16:
-                                if(Chassis.isAtDistance() || tmrStageTimeOut.get() > 1.0) mStage++;                             
-                                break;
-                            case 17:
-                                Console.logMsg("Distance reached. Stopping drive...");
-                                Chassis.disable();
-                                mStage++;
-                                break;
-                            case 18:
-                                Console.logMsg("Sequence Complete \"" + Sequence.HIGH_SCORE_CUBE.toString() + "\" - " + StartingPosition.LOADING.toString());
-                                mStage++;
-                                break;
-                            default:
-                                Chassis.disable();
-                                Elevator.disable();
-                                Manipulator.disable();
-                        } break;
-                    default:
-                        Chassis.disable();
-                        Elevator.disable();
-                        Manipulator.disable();
-                }
-            }
-        },
-        FIX_THAT_WHOLE_BALANCE_THING("Fix that whole balance thing"){
-            @Override public void run() {
-                switch(mStage){
-                    case 0:
-                        Console.logMsg("Starting Sequence \"" + Sequence.FIX_THAT_WHOLE_BALANCE_THING.toString() + "\" - " + StartingPosition.CHARGE_STATION.toString());
-                        mStage++;
-                        break;
-                    case 1:
-                        Console.logMsg("Starting drive backward...");
-                        Chassis.goToDistance(mChargeBalanceDistance);
-                        tmrStageTimeOut.reset();
-                        mStage++;
-                        break;
-                    case 2:
-                        if((Chassis.isAtDistance() && tmrStageTimeOut.get() > 2.5) || tmrStageTimeOut.get() > 3.0) mStage++;                             
-                        break;
-                    case 3:
-                        Console.logMsg("Checking balance status...");
-                        Chassis.disableDistancePID();
-                        Chassis.resetDistance();
-                        tmrStageTimeOut.reset();
-                        mCorrectionCount++;
-                        mStage++;
-                        break;
-                    case 4:
-                        if(tmrStageTimeOut.get() > 1.0) mStage++;
-                        break;
-                    case 5:
-                        if(Math.abs(Chassis.getDistance()) <= 0.3 || mCorrectionCount > 5){
-                            Console.logMsg("Correction complete...");
-                            Chassis.goToDistance(0.0);
-                            mStage++;
-                            break;
-                        } else {
-                            Console.logMsg("Correcting...");
-                            //FIXME: do correct maths
-                            Chassis.goToDistance((Math.abs(Chassis.getDistance()) + 1.0) * -Math.signum(Chassis.getDistance()));
-                            mStage = 3;
-                            break;
-                        }
-                    case 6:
-                        Console.logMsg("Sequence Complete \"" + Sequence.JUST_DRIVE.toString() + "\" - " + StartingPosition.CHARGE_STATION.toString());
-                        mStage++;
-                        break;
-                    default:
-                        Elevator.disable();
-                        Manipulator.disable();
-                }
-            }
-        },
-        HIGH_SCORE_CONE("High Score Cone"){
-            @Override public void run() {
-                switch(mStartingPosition){
-                    case WALL:
-                        switch(mStage){
-                            case 0:
-                                Console.logMsg("Starting Sequence \"" + Sequence.HIGH_SCORE_CONE.toString() + "\" - " + StartingPosition.WALL.toString());
-                                mStage++;
-                                break;
-                            case 1:
-                                Console.logMsg("Elevator to high position...");
-                                Elevator.goToHeight(Elevator.Height.HIGH);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 2:
-                                if(Elevator.isAtHeight() || tmrStageTimeOut.get() > 1.5) mStage++;
-                                break;
-                            case 3:
-                                Console.logMsg("Extending arm...");
-                                Manipulator.extendArm();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 4:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;
-                                break;
-                            case 5:
-                                Console.logMsg("Starting drive backwards, opening claw, retracting arm...");
-                                Chassis.resetDistance();
-                                Manipulator.retractArm();
-                                Manipulator.openGrip();
-                                Chassis.setDrive(-.15, -.15);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 6:
-                                if(tmrStageTimeOut.get() > .5) mStage++;                             
-                                break;
-                            case 7:
-                                Console.logMsg("Returning elevator to bottom...");
-                                Elevator.goToHeight(Elevator.Height.BOTTOM);
-                                Chassis.disable();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                            case 8:
-                                if(Elevator.isLiftAtBottom() || tmrStageTimeOut.get() > 2.0) mStage++;
-                                break;
-                            case 9:
-                                Console.logMsg("Starting drive backwards and closing grip...");
-                                Chassis.goToDistance(mWallReverseDistance  - Chassis.getDistance());
-                                Manipulator.closeGrip();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 10:
-                                if(Chassis.isAtDistance() || tmrStageTimeOut.get() > 3.0) mStage++;                             
-                                break;
-                            case 11:
-                                Console.logMsg("Distance reached. Starting turn...");
-                                if (mAlliance == Alliance.Red){
-                                    Chassis.goToAngle(-168.00);
-                                } else {
-                                    Chassis.goToAngle(168.00);
-                                }
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 12:
-                                if(Chassis.isAtAngle() || tmrStageTimeOut.get() > 3.0) mStage++;                             
-                                break;
-                            case 13:
-                                Console.logMsg("Angle reached. Opening claw and extending arm...");
-                                Manipulator.openGrip();
-                                Manipulator.extendArm();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 14:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;                             
-                                break;
-                            case 15:
-                                Console.logMsg("Starting drive forward...");
-                                Chassis.goToDistance(24.00);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 16:
-                                if(Chassis.isAtDistance() || tmrStageTimeOut.get() > 1.0) mStage++;                             
-                                break;
-                            case 17:
-                                Console.logMsg("Distance reached. Stopping drive...");
-                                Chassis.disable();
-                                mStage++;
-                                break;
-                            case 18:
-                                Console.logMsg("Sequence Complete \"" + Sequence.HIGH_SCORE_CONE.toString() + "\" - " + StartingPosition.WALL.toString());
-                                mStage++;
-                                break;
-                            default:
-                                Chassis.disable();
-                                Elevator.disable();
-                                Manipulator.disable();
-                        } break;
-                    case CHARGE_STATION:
-                        switch(mStage){
-                            case 0:
-                                Console.logMsg("Starting Sequence \"" + Sequence.HIGH_SCORE_CONE.toString() + "\" - " + StartingPosition.CHARGE_STATION.toString());
-                                mStage++;
-                                break;
-                            case 1:
-                                Console.logMsg("Elevator to high position...");
-                                Elevator.goToHeight(Elevator.Height.HIGH);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 2:
-                                if(Elevator.isAtHeight() || tmrStageTimeOut.get() > 1.5) mStage++;
-                                break;
-                            case 3:
-                                Console.logMsg("Extending arm... \"");
-                                Manipulator.extendArm();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 4:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;
-                                break;
-                                case 5:
-                                Console.logMsg("Starting drive backwards, opening claw, retracting arm...");
-                                Chassis.resetDistance();
-                                Manipulator.retractArm();
-                                Manipulator.openGrip();
-                                Chassis.setDrive(-.15, -.15);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 6:
-                                if(tmrStageTimeOut.get() > .5) mStage++;                             
-                                break;
-                            case 7:
-                                Console.logMsg("Returning elevator to bottom... \"");
-                                Elevator.goToHeight(Elevator.Height.BOTTOM);
-                                Chassis.disable();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                            case 8:
-                                if(Elevator.isLiftAtBottom() || tmrStageTimeOut.get() > 2.0) mStage++;
-                                break;
-                            case 9:
-                                Console.logMsg("Waiting...");
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 10:
-                            //FIXME: Make this an actual time
-                                if(tmrStageTimeOut.get() > 0.0){
-                                    mStage++;
-                                };
-                                break;
-                            case 11:
-                                Console.logMsg("Starting drive backwards to park and closing grip...");
-                                Chassis.goToDistance(mChargeBalanceDistance - Chassis.getDistance());
-                                Manipulator.closeGrip();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 12:
-                                if(Chassis.isAtDistance() || tmrStageTimeOut.get() > 5.0) mStage++;                             
-                                break;
-                            case 13:
-                                Console.logMsg("Sequence Complete \"" + Sequence.HIGH_SCORE_CONE.toString() + "\" - " + StartingPosition.CHARGE_STATION.toString());
-                                mStage++;
-                                break;
-                            default:
-                                Elevator.disable();
-                                Manipulator.disable();
-                        } break;
-                    case LOADING:
-                        switch(mStage){
-                            case 0:
-                                Console.logMsg("Starting Sequence \"" + Sequence.HIGH_SCORE_CONE.toString() + "\" - " + StartingPosition.LOADING.toString());
-                                mStage++;
-                                break;
-                            case 1:
-                                Console.logMsg("Elevator to high position...");
-                                Elevator.goToHeight(Elevator.Height.HIGH);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 2:
-                                if(Elevator.isAtHeight() || tmrStageTimeOut.get() > 1.5) mStage++;
-                                break;
-                            case 3:
-                                Console.logMsg("Extending arm... \"");
-                                Manipulator.extendArm();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 4:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;
-                                break;
-                            case 5:
-                                Console.logMsg("Starting drive backwards...");
-                                Chassis.resetDistance();
-                                Manipulator.retractArm();
-                                Manipulator.openGrip();
-                                Chassis.setDrive(-.15, -.15);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 6:
-                                if(tmrStageTimeOut.get() > .5) mStage++;                             
-                                break;
-                            case 7:
-                                Console.logMsg("Returning elevator to bottom... \"");
-                                Elevator.goToHeight(Elevator.Height.BOTTOM);
-                                Chassis.disable();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                            case 8:
-                                if(Elevator.isLiftAtBottom() || tmrStageTimeOut.get() > 2.0) mStage++;
-                                break;
-                            case 9:
-                                Console.logMsg("Starting drive backwards and closing grip...");
-                                Chassis.goToDistance(mLoadingReverseDistance - Chassis.getDistance());
-                                Manipulator.closeGrip();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 10:
-                                if(Chassis.isAtDistance() || tmrStageTimeOut.get() > 3.0) mStage++;                             
-                                break;
-                            case 11:
-                                Console.logMsg("Distance reached. Starting turn...");
-                                if (mAlliance == Alliance.Red){
-                                    Chassis.goToAngle(168.00);
-                                } else {
-                                    Chassis.goToAngle(-168.00);
-                                }
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 12:
-                                if(Chassis.isAtAngle() || tmrStageTimeOut.get() > 3.0) mStage++;                             
-                                break;
-                            case 13:
-                                Console.logMsg("Angle reached. Opening claw and extending arm...");
-                                Manipulator.openGrip();
-                                Manipulator.extendArm();
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 14:
-                                if(tmrStageTimeOut.get() > 1.0) mStage++;                             
-                                break;
-                            case 15:
-                                Console.logMsg("Starting drive forward...");
-                                Chassis.goToDistance(24.00);
-                                tmrStageTimeOut.reset();
-                                mStage++;
-                                break;
-                            case 16:
-                                if(Chassis.isAtDistance() || tmrStageTimeOut.get() > 1.0) mStage++;                             
-                                break;
-                            case 17:
-                                Console.logMsg("Distance reached. Stopping drive...");
-                                Chassis.disable();
-                                mStage++;
-                                break;
-                            case 18:
-                                Console.logMsg("Sequence Complete \"" + Sequence.HIGH_SCORE_CONE.toString() + "\" - " + StartingPosition.LOADING.toString());
-                                mStage++;
-                                break;
-                            default:
-                                Chassis.disable();
-                                Elevator.disable();
-                                Manipulator.disable();
-                        } break;
-                    default:
-                        Chassis.disableDrive();
-                        Elevator.disable();
-                        Manipulator.disable();
-                }
-            }
-        };
-
-        //Timers
-        public static final Timer tmrStageTimeOut = new Timer();
+        ),
+        HIGH_SCORE_CONE("High Score Cone",
+            concat(scoreHigh("Starting drive backwards, opening claw, retracting arm...", -.15), scoreFromGrid(mWallReverseDistance, -168.00, 168.00, true)),
+            //FIXME: Make this an actual time
+            concat(scoreHigh("Starting drive backwards, opening claw, retracting arm...", -.15), parkOnChargeStation(0.0, 0.0)),
+            concat(scoreHigh("Starting drive backwards...", -.15), scoreFromGrid(mLoadingReverseDistance, 168.00, -168.00, true))
+        );
 
-        //Static Variables 
-        private static int mStage = 0;
-        private static int mCorrectionCount = 0;
-        private static final double mWallReverseDistance = -156.00;
-        private static final double mChargeBalanceDistance = -102.00;
-        private static final double mLoadingReverseDistance = -156.00;
-        
         private final String label;
-        private Sequence(String label){
+        private final Step[][] mSteps;
+
+        /**
+         * A sequence that runs the same way from every starting position, and is always
+         * logged as starting from the Charge Station.
+         * @param label Name shown on the dashboard
+         * @param steps Steps to run, ending with a hold
+         */
+        private Sequence(String label, Step[] steps){
             this.label = label;
+            Step[] wrapped = wrap(label, StartingPosition.CHARGE_STATION, steps);
+            this.mSteps = new Step[][] {wrapped, wrapped, wrapped};
         }
+
+        /**
+         * A sequence with different steps for each starting position.
+         * @param label Name shown on the dashboard
+         * @param wall Steps to run from the wall side, ending with a hold
+         * @param chargeStation Steps to run from the charge station, ending with a hold
+         * @param loading Steps to run from the loading side, ending with a hold
+         */
+        private Sequence(String label, Step[] wall, Step[] chargeStation, Step[] loading){
+            this.label = label;
+            this.mSteps = new Step[StartingPosition.values().length][];
+            this.mSteps[StartingPosition.WALL.ordinal()] = wrap(label, StartingPosition.WALL, wall);
+            this.mSteps[StartingPosition.CHARGE_STATION.ordinal()] = wrap(label, StartingPosition.CHARGE_STATION, chargeStation);
+            this.mSteps[StartingPosition.LOADING.ordinal()] = wrap(label, StartingPosition.LOADING, loading);
+        }
+
         @Override public String toString(){
             return label;
         }
 
-        /**Initialization of the sequence. Overide if any additional actions are needed. */
-        public void init(){
-            mStage = 0;
-            tmrStageTimeOut.start();
-            tmrStageTimeOut.reset();
+        /**
+         * Get the steps to run from a starting position.
+         * @param position Starting position
+         * @return Steps of the sequence
+         */
+        public Step[] getSteps(StartingPosition position){
+            return mSteps[position.ordinal()];
         }
 
-        /** The actual code for running the auton sequence. */
-        public abstract void run();
+        /**
+         * Add the start and complete messages around the body of a sequence, so they are built once
+         * instead of on every run. A sequence that is only its final hold gets no messages.
+         * @param label Name of the sequence
+         * @param position Starting position the steps are for
+         * @param body Steps to run, ending with a hold
+         * @return Steps with the messages added
+         */
+        private static Step[] wrap(String label, StartingPosition position, Step[] body){
+            if(body.length <= 1) return body;
+
+            Step[] steps = new Step[body.length + 2];
+            steps[0] = Step.log("Starting Sequence \"" + label + "\" - " + position);
+            System.arraycopy(body, 0, steps, 1, body.length - 1);
+            steps[steps.length - 2] = Step.log("Sequence Complete \"" + label + "\" - " + position);
+            steps[steps.length - 1] = body[body.length - 1];
+            return steps;
+        }
     }
 
+    //Distances
+    private static final double mWallReverseDistance = -156.00;
+    private static final double mChargeBalanceDistance = -102.00;
+    private static final double mLoadingReverseDistance = -156.00;
 
-    
     //Network Table
     private static final NetworkTable tblAutonomous = Robot.tblPeriod.getSubTable("Autonomous");
 
@@ -1072,7 +166,14 @@ public class Autonomous {
     private static SendableChooser<StartingPosition> chsStartingPosition = new SendableChooser<StartingPosition>();
     private static SendableChooser<Sequence> chsSequence = new SendableChooser<Sequence>();
 
+    //Match Log Channels, created by initLog()
+    private static MatchLog.StringChannel logSequence;
+    private static MatchLog.StringChannel logStarting_Position;
+    private static MatchLog.IntegerChannel logStep;
+    private static MatchLog.StringChannel logAlliance;
+
     //Components
+    private static final StepRunner mRunner = new StepRunner();
     private static StartingPosition mStartingPosition;
     private static Sequence mSequence;
     private static Alliance mAlliance;
@@ -1089,7 +190,7 @@ public class Autonomous {
         mSequence = chsSequence.getSelected();
         mAlliance = DriverStation.getAlliance();
 
-        mSequence.init();
+        mRunner.start(mSequence.getSteps(mStartingPosition));
 
         Chassis.setDriveNeutralMode(NeutralMode.Brake);
 
@@ -1121,15 +222,157 @@ public class Autonomous {
         SmartDashboard.putData("Period/Autonomous/Sequence", chsSequence);
     }
 
+    /** Stop everything. */
+    private static void disableAll() {
+        Chassis.disable();
+        Elevator.disable();
+        Manipulator.disable();
+    }
+
+    /** Stop everything but the Chassis, so it can keep holding its position. */
+    private static void disableMechanisms() {
+        Elevator.disable();
+        Manipulator.disable();
+    }
+
+    /**
+     * Time to allow a drive distance step, never less than the profile needs to finish.
+     * @param distance Distance being driven
+     * @param timeout Shortest time to allow
+     * @return Time to allow in seconds
+     */
+    private static double driveTimeout(double distance, double timeout) {
+        return Math.max(timeout, Chassis.predictDistanceTime(distance) + 0.5);
+    }
+
+    /**
+     * Join groups of steps into one sequence.
+     * @param parts Groups of steps, in order
+     * @return Every step
+     */
+    private static Step[] concat(Step[]... parts) {
+        int length = 0;
+        for(Step[] part : parts) length += part.length;
+
+        Step[] steps = new Step[length];
+        int index = 0;
+        for(Step[] part : parts){
+            System.arraycopy(part, 0, steps, index, part.length);
+            index += part.length;
+        }
+        return steps;
+    }
+
+    /**
+     * Drive backward out of the community and stop.
+     * @param distance Distance to drive
+     */
+    private static Step[] driveOut(double distance) {
+        return new Step[] {
+            Step.run("Starting drive backward...", () -> Chassis.goToDistance(distance)).until(Chassis::isAtDistance, driveTimeout(distance, 2.5)),
+            Step.run("Time reached. Stopping drive...", Chassis::disable),
+            Step.hold(Autonomous::disableAll)
+        };
+    }
+
+    /** Drop the preloaded game piece on the low grid. */
+    private static Step[] scoreLow() {
+        return new Step[] {
+            Step.run("Extending arm...", Manipulator::extendArm).forTime(1.0),
+            Step.run("Opening claw...", Manipulator::openGrip).forTime(1.0),
+            Step.run("Retracting arm...", Manipulator::retractArm).forTime(1.0)
+        };
+    }
+
+    /**
+     * Drop the preloaded game piece on the high grid, backing away as the claw opens.
+     * @param message Message logged as the Chassis starts backing away
+     * @param power Power to back away at
+     */
+    private static Step[] scoreHigh(String message, double power) {
+        return new Step[] {
+            Step.run("Elevator to high position...", () -> Elevator.goToHeight(Elevator.Height.HIGH)).until(Elevator::isAtHeight, 1.5),
+            Step.run("Extending arm...", Manipulator::extendArm).forTime(1.0),
+            Step.run(message, () -> {
+                Chassis.resetDistance();
+                Manipulator.retractArm();
+                Manipulator.openGrip();
+                Chassis.setDrive(power, power);
+            }).forTime(0.5),
+            Step.run("Returning elevator to bottom...", () -> {
+                Elevator.goToHeight(Elevator.Height.BOTTOM);
+                Chassis.disable();
+            }).until(Elevator::isLiftAtBottom, 2.0)
+        };
+    }
+
+    /**
+     * After scoring, drive out of the community, turn around, and line up on a game piece.
+     * @param distance Distance to drive out, from where the Chassis started
+     * @param redAngle Angle to turn to on the Red alliance
+     * @param blueAngle Angle to turn to on the Blue alliance
+     * @param isHigh Whether the game piece was scored high, the claw then needs closing to drive and opening to pick up
+     */
+    private static Step[] scoreFromGrid(double distance, double redAngle, double blueAngle, boolean isHigh) {
+        return new Step[] {
+            isHigh
+                ? Step.run("Starting drive backwards and closing grip...", () -> {
+                    Chassis.goToDistance(distance - Chassis.getDistance());
+                    Manipulator.closeGrip();
+                }).until(Chassis::isAtDistance, driveTimeout(distance, 3.0))
+                : Step.run("Starting drive backwards...", () -> Chassis.goToDistance(distance)).until(Chassis::isAtDistance, driveTimeout(distance, 3.0)),
+            Step.run("Distance reached. Starting turn...", () -> Chassis.goToAngle(mAlliance == Alliance.Red ? redAngle : blueAngle)).until(Chassis::isAtAngle, 3.0),
+            isHigh
+                ? Step.run("Angle reached. Opening claw and extending arm...", () -> {
+                    Manipulator.openGrip();
+                    Manipulator.extendArm();
+                }).forTime(1.0)
+                : Step.run("Angle reached. Extending arm...", Manipulator::extendArm).forTime(1.0),
+            Step.run("Starting drive forward...", () -> Chassis.goToDistance(24.00)).until(Chassis::isAtDistance, driveTimeout(24.00, 1.0)),
+            Step.run("Distance reached. Stopping drive...", Chassis::disable),
+            Step.hold(Autonomous::disableAll)
+        };
+    }
+
+    /**
+     * After scoring high, wait and then back onto the Charge Station and balance there.
+     * @param wait Time to wait before driving
+     * @param redOffset Extra distance on the Red alliance
+     */
+    private static Step[] parkOnChargeStation(double wait, double redOffset) {
+        return new Step[] {
+            Step.log("Waiting...").forTime(wait),
+            Step.run("Starting drive backwards to park and closing grip...", () -> {
+                Chassis.goToDistance(mChargeBalanceDistance - Chassis.getDistance() + (mAlliance == Alliance.Red ? redOffset : 0.0));
+                Manipulator.closeGrip();
+            }).until(Chassis::isAtDistance, driveTimeout(mChargeBalanceDistance, 5.0)),
+            Step.run("Balancing...", Chassis::balance).until(Chassis::isBalanced, 5.0),
+            Step.hold(Autonomous::disableMechanisms)
+        };
+    }
+
+    /** Create the Match Log channels. */
+    public static void initLog() {
+        logSequence = MatchLog.addString("Autonomous/Sequence");
+        logStarting_Position = MatchLog.addString("Autonomous/Starting Position");
+        logStep = MatchLog.addInteger("Autonomous/Step");
+        logAlliance = MatchLog.addString("Autonomous/Alliance");
+    }
+
+    /** Record the running sequence and step to the Match Log. Only changes once autonomous has started. */
+    public static void pushLogValues() {
+        if(mSequence == null) return;
+        logSequence.append(mSequence.label);
+        logStarting_Position.append(mStartingPosition.label);
+        logStep.append(mRunner.getIndex());
+        logAlliance.append(mAlliance.name());
+    }
+
      /**
      * Runs on a periodic loop that updates values and runs functions
      * according to human input, autonomus input, and game conditions.
      */
     public static void periodic() {
-        mSequence.run();
-
-        Chassis.periodic();
-        Elevator.periodic();
-        Manipulator.periodic();
+        mRunner.run(Timer.getFPGATimestamp());
     }
 }
@@ -3,11 +3,11 @@ package frc.robot.period;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 
 import edu.wpi.first.wpilibj.Timer;
-import frc.molib.buttons.Button;
-import frc.molib.hid.XboxController;
 import frc.robot.subsystem.Chassis;
 import frc.robot.subsystem.Elevator;
 import frc.robot.subsystem.Manipulator;
+import frc.robot.utilities.Controllers;
+import frc.robot.utilities.XboxSnapshot;
 
 /**
  * The Disabled Period
@@ -20,14 +20,12 @@ public class Disabled {
     //TODO: Create Dashboard Entries
 
     //TODO: Create components
-    private static final XboxController ctlDriver = new XboxController(0);
+    private static final XboxSnapshot ctlDriver = Controllers.ctlDriver;
 
     public static final Timer tmrBrake = new Timer();
     public static Boolean mIsBrakeTimerEnabled = false;
 
-    private static final Button btnChassis_Brake = new Button(){
-        @Override public boolean get() { return ctlDriver.getLeftTrigger(); }
-    };
+    private static final int btnChassis_Brake = XboxSnapshot.LEFT_TRIGGER;
 
     public static void init() {
         Chassis.setDriveNeutralMode(NeutralMode.Coast);
@@ -35,8 +33,9 @@ public class Disabled {
         tmrBrake.reset();
         tmrBrake.start();
 
-        Chassis.disablePIDs();
-        Elevator.disablePIDs();
+        //Subsystems keep writing outputs while disabled, so clear what was last commanded
+        Chassis.disable();
+        Elevator.disable();
         Manipulator.closeGrip();
         Manipulator.retractArm();
     }
@@ -50,7 +49,7 @@ public class Disabled {
     }
 
     public static void periodic() {
-        if(btnChassis_Brake.get() || (tmrBrake.get() < 20.00 && mIsBrakeTimerEnabled)){
+        if(ctlDriver.get(btnChassis_Brake) || (tmrBrake.get() < 20.00 && mIsBrakeTimerEnabled)){
             Chassis.setDriveNeutralMode(NeutralMode.Brake);
         } else{
             Chassis.setDriveNeutralMode(NeutralMode.Coast);
@@ -0,0 +1,116 @@
+package frc.robot.period;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * A single step of an autonomous sequence.
+ * <p>
+ * A step logs its message and runs its action once when it is entered. A step that waits then
+ * holds until its condition is met or its timeout passes. Steps are built once, when the sequences
+ * are declared, and never change afterwards.
+ * @see StepRunner
+ */
+final class Step {
+    /** Logged when the step is entered, may be null. */
+    final String message;
+    /** Run once when the step is entered, may be null. */
+    final Runnable action;
+    /** Whether the step waits before moving on. */
+    final boolean waits;
+    /** Finishes the wait early once true, may be null to only wait for the timeout. */
+    final BooleanSupplier condition;
+    /** Seconds before the condition is allowed to finish the wait. */
+    final double minimumTime;
+    /** Seconds after which the wait finishes regardless of the condition. */
+    final double timeout;
+    /** When true on entry, the step runs and jumps to its target instead of moving on. May be null. */
+    final BooleanSupplier jumpCondition;
+    /** Index of the step to jump to. */
+    final int jumpTarget;
+    /** Whether the step runs its action every loop and never finishes. */
+    final boolean holds;
+
+    private Step(String message, Runnable action, boolean waits, BooleanSupplier condition, double minimumTime, double timeout, BooleanSupplier jumpCondition, int jumpTarget, boolean holds) {
+        this.message = message;
+        this.action = action;
+        this.waits = waits;
+        this.condition = condition;
+        this.minimumTime = minimumTime;
+        this.timeout = timeout;
+        this.jumpCondition = jumpCondition;
+        this.jumpTarget = jumpTarget;
+        this.holds = holds;
+    }
+
+    /**
+     * A step that only logs a message.
+     * @param message Message to log
+     */
+    static Step log(String message) {
+        return new Step(message, null, false, null, 0.0, 0.0, null, 0, false);
+    }
+
+    /**
+     * A step that logs a message and runs an action once.
+     * @param message Message to log, may be null
+     * @param action Action to run
+     */
+    static Step run(String message, Runnable action) {
+        return new Step(message, action, false, null, 0.0, 0.0, null, 0, false);
+    }
+
+    /**
+     * A step that runs an action every loop and never finishes, used to end a sequence.
+     * @param action Action to run
+     */
+    static Step hold(Runnable action) {
+        return new Step(null, action, false, null, 0.0, 0.0, null, 0, true);
+    }
+
+    /**
+     * A step that, when its condition is true on entry, logs, runs its action, and jumps to another step.
+     * Otherwise it is skipped over within the same loop.
+     * @param condition Whether to jump
+     * @param target Index of the step to jump to
+     * @param message Message to log when jumping
+     * @param action Action to run when jumping
+     */
+    static Step jumpIf(BooleanSupplier condition, int target, String message, Runnable action) {
+        return new Step(message, action, false, null, 0.0, 0.0, condition, target, false);
+    }
+
+    /**
+     * Copy of this step that waits a fixed time before moving on.
+     * @param seconds Time to wait
+     */
+    Step forTime(double seconds) {
+        return new Step(message, action, true, null, 0.0, seconds, null, 0, false);
+    }
+
+    /**
+     * Copy of this step that waits until a condition is met or a timeout passes.
+     * @param condition Condition that finishes the wait
+     * @param timeout Seconds after which the wait finishes anyway
+     */
+    Step until(BooleanSupplier condition, double timeout) {
+        return new Step(message, action, true, condition, 0.0, timeout, null, 0, false);
+    }
+
+    /**
+     * Copy of this step that ignores its condition until some time has passed.
+     * @param seconds Time before the condition may finish the wait
+     */
+    Step after(double seconds) {
+        return new Step(message, action, waits, condition, seconds, timeout, null, 0, false);
+    }
+
+    /**
+     * Check whether the wait is over.
+     * @param elapsed Seconds since the step was entered
+     * @return True if the step is done
+     */
+    boolean isDone(double elapsed) {
+        if(elapsed > timeout) return true;
+        return condition != null && elapsed >= minimumTime && condition.getAsBoolean();
+    }
+}
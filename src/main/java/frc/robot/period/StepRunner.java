@@ -0,0 +1,88 @@
+package frc.robot.period;
+
+import frc.robot.utilities.AsyncLogger;
+
+/**
+ * Step Runner
+ * <p>
+ * Runs an array of steps one loop at a time. Entering a step takes one loop, a waiting step
+ * then checks for completion on each loop after that. Running never allocates.
+ * @see Step
+ */
+final class StepRunner {
+    private Step[] mSteps = new Step[0];
+    private int mIndex = 0;
+    private boolean mIsWaiting = false;
+    private double mEnterTime = 0.0;
+
+    /**
+     * Start running a new set of steps from the beginning.
+     * @param steps Steps to run
+     */
+    void start(Step[] steps) {
+        mSteps = steps;
+        mIndex = 0;
+        mIsWaiting = false;
+    }
+
+    /**
+     * Read which step is running.
+     * @return Index of the current step
+     */
+    int getIndex() {
+        return mIndex;
+    }
+
+    /**
+     * Run one loop of the current step.
+     * @param timestamp Current time in seconds
+     */
+    void run(double timestamp) {
+        //Skipped jumps fall through to the next step in the same loop, bounded so a bad table cannot spin
+        for(int skipped = 0; skipped <= mSteps.length; skipped++){
+            if(mIndex >= mSteps.length) return;
+            Step step = mSteps[mIndex];
+
+            if(mIsWaiting){
+                if(step.isDone(timestamp - mEnterTime)){
+                    mIsWaiting = false;
+                    mIndex++;
+                }
+                return;
+            }
+
+            if(step.holds){
+                step.action.run();
+                return;
+            }
+
+            if(step.jumpCondition != null){
+                if(!step.jumpCondition.getAsBoolean()){
+                    mIndex++;
+                    continue;
+                }
+                enter(step, timestamp);
+                mIndex = step.jumpTarget;
+                return;
+            }
+
+            enter(step, timestamp);
+            if(step.waits)
+                mIsWaiting = true;
+            else
+                mIndex++;
+            return;
+        }
+    }
+
+    /**
+     * Log and run a step's entry.
+     * @param step Step being entered
+     * @param timestamp Current time in seconds
+     */
+    private void enter(Step step, double timestamp) {
+        if(step.message != null) AsyncLogger.log(step.message);
+        if(step.action != null) step.action.run();
+        mEnterTime = timestamp;
+    }
+}
@@ -3,15 +3,17 @@ package frc.robot.period;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 
 import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
-import frc.molib.buttons.Button;
-import frc.molib.buttons.ButtonManager;
-import frc.molib.hid.XboxController;
 import frc.robot.Robot;
 import frc.robot.subsystem.Chassis;
 import frc.robot.subsystem.Elevator;
 import frc.robot.subsystem.Manipulator;
+import frc.robot.utilities.AxisShaper;
+import frc.robot.utilities.Controllers;
+import frc.robot.utilities.CurvatureDrive;
+import frc.robot.utilities.XboxSnapshot;
 
 /**
  * The Teleoperated Period
@@ -51,16 +53,24 @@ public class Teleoperated {
     }
 
     /**
-     * Drive mode options
+     * Drive mode options, with the response curve for each stick. Tank drive steers with
+     * the difference between the sticks, so both use the throttle rate limit. Cheezy drive
+     * shapes its own steering, and needs it unlimited for negative inertia to work.
      */
     enum DriveMode{
-        TANK_DRIVE("Tank drive"),
-        CHEEZY_DRIVE("Cheezy drive"),
-        ARCADE_DRIVE("Arcade drive");
+        TANK_DRIVE("Tank drive", 2.0, 2.0, THROTTLE_RATE),
+        CHEEZY_DRIVE("Cheezy drive", 2.0, 1.0, 0.0),
+        ARCADE_DRIVE("Arcade drive", 2.0, 3.0, STEERING_RATE);
         
         public final String label;
-        private DriveMode(String label){
+        public final double throttleCurve;
+        public final double steeringCurve;
+        public final double steeringRate;
+        private DriveMode(String label, double throttleCurve, double steeringCurve, double steeringRate){
             this.label = label;
+            this.throttleCurve = throttleCurve;
+            this.steeringCurve = steeringCurve;
+            this.steeringRate = steeringRate;
         }
 
         @Override public String toString(){
@@ -68,6 +78,11 @@ public class Teleoperated {
         }
     }
 
+    //Driver input shaping, in power per second for the rate limits
+    private static final double DRIVE_DEADBAND = 0.08;
+    private static final double THROTTLE_RATE = 4.0;
+    private static final double STEERING_RATE = 8.0;
+
     //Network Table
     private static NetworkTable tblTeleoperated = Robot.tblPeriod.getSubTable("Teleoperated");
 
@@ -75,74 +90,31 @@ public class Teleoperated {
     private static SendableChooser<ChassisPower> chsChassisPower = new SendableChooser<ChassisPower>();
     private static SendableChooser<DriveMode> chsDriveMode = new SendableChooser<DriveMode>();
 
-    //Xbox controllers
-    private static XboxController ctlDriver = new XboxController(0);
-    private static XboxController ctlOperator = new XboxController(1);
-
-    //Buttons
-    private static final Button btnElevator_Bottom = new Button() {
-        @Override public boolean get() { return ctlOperator.getAButton();}
-    };
-
-    private static final Button btnElevator_Low = new Button() {
-        @Override public boolean get() { return ctlOperator.getBButton();}
-    };
-
-    private static final Button btnElevator_Middle = new Button() {
-        @Override public boolean get() { return ctlOperator.getXButton();}
-    };
-
-    private static final Button btnElevator_High = new Button() {
-        @Override public boolean get() { return ctlOperator.getYButton();}
-    };
-
-    private static final Button btnElevator_Up = new Button() {
-        @Override public boolean get() { return ctlOperator.getPOV() == 0; }
-    };
-
-    private static final Button btnElevator_Down = new Button() {
-        @Override public boolean get() { return ctlOperator.getPOV() == 180;}
-    };
-
-    private static final Button btnManipulator_Extend = new Button() {
-        @Override public boolean get() { return ctlOperator.getRightTrigger();}
-    };
-
-    private static final Button btnManipulator_Retract = new Button() {
-        @Override public boolean get() { return ctlOperator.getLeftTrigger();}
-    };
-
-    private static final Button btnManipulator_Open = new Button() {
-        @Override public boolean get() { return ctlOperator.getRightBumper();}
-    };
-
-    private static final Button btnManipulator_Close = new Button() {
-        @Override public boolean get() { return ctlOperator.getLeftBumper();}
-    };
-
-    private static final Button btnChassis_Precision = new Button() {
-        @Override public boolean get() { return ctlDriver.getRightBumper();}
-    };
-
-    private static final Button btnChassis_Slow = new Button() {
-        @Override public boolean get() { return ctlDriver.getLeftBumper();}
-    };
-
-    private static final Button btnChassis_Boost = new Button() {
-        @Override public boolean get() { return ctlDriver.getRightTrigger();}
-    };
-
-    private static final Button btnChassis_Brake = new Button (){
-        @Override public boolean get() { return ctlDriver.getLeftTrigger();}
-    };
-
-    private static final Button btnChassis_Lineup_F = new Button (){
-        @Override public boolean get() { return ctlDriver.getPOV() == 0; }
-    };
-
-    private static final Button btnChassis_Lineup_B = new Button (){
-        @Override public boolean get() { return ctlDriver.getPOV() == 180; }
-    };
+    //Xbox controllers, read once per loop by the robot
+    private static final XboxSnapshot ctlDriver = Controllers.ctlDriver;
+    private static final XboxSnapshot ctlOperator = Controllers.ctlOperator;
+
+    //Stick shaping, the throttle shaper runs the left side and the steering shaper the right side in tank drive
+    private static final AxisShaper shpThrottle = new AxisShaper(DRIVE_DEADBAND, TimedRobot.kDefaultPeriod);
+    private static final AxisShaper shpSteering = new AxisShaper(DRIVE_DEADBAND, TimedRobot.kDefaultPeriod);
+    private static final CurvatureDrive crvDrive = new CurvatureDrive();
+
+    //Operator buttons
+    private static final int btnElevator_Bottom = XboxSnapshot.A;
+    private static final int btnElevator_Low = XboxSnapshot.B;
+    private static final int btnElevator_Middle = XboxSnapshot.X;
+    private static final int btnElevator_High = XboxSnapshot.Y;
+    private static final int btnManipulator_Extend = XboxSnapshot.RIGHT_TRIGGER;
+    private static final int btnManipulator_Retract = XboxSnapshot.LEFT_TRIGGER;
+    private static final int btnManipulator_Open = XboxSnapshot.RIGHT_BUMPER;
+    private static final int btnManipulator_Close = XboxSnapshot.LEFT_BUMPER;
+
+    //Driver buttons
+    private static final int btnChassis_Precision = XboxSnapshot.RIGHT_BUMPER;
+    private static final int btnChassis_Slow = XboxSnapshot.LEFT_BUMPER;
+    private static final int btnChassis_Boost = XboxSnapshot.RIGHT_TRIGGER;
+    private static final int btnChassis_Quick_Turn = XboxSnapshot.A;
+    private static final int btnChassis_Brake = XboxSnapshot.LEFT_TRIGGER;
 
     //Buffer variables
     private static ChassisPower mSelectedChassisPower;
@@ -159,11 +131,9 @@ public class Teleoperated {
     public static void init() {
         mSelectedDriveMode = chsDriveMode.getSelected();
         mSelectedChassisPower = chsChassisPower.getSelected();
+        configDriveMode(mSelectedDriveMode);
 
         Disabled.setBreakTimerEnabled(false);
-
-        ButtonManager.clearFlags();
-        
     }
 
     /**
@@ -189,6 +159,42 @@ public class Teleoperated {
     }
 
 
+    /**
+     * Set up the stick shaping for a drive mode, starting from rest.
+     * @param mode Drive mode to shape the sticks for
+     */
+    static void configDriveMode(DriveMode mode) {
+        shpThrottle.configCurve(mode.throttleCurve);
+        shpThrottle.configRateLimit(THROTTLE_RATE);
+        shpThrottle.reset();
+        shpSteering.configCurve(mode.steeringCurve);
+        shpSteering.configRateLimit(mode.steeringRate);
+        shpSteering.reset();
+        crvDrive.reset();
+    }
+
+    /**
+     * Shape the driver's sticks and drive the Chassis with them, the way the drive mode uses them.
+     * @param mode Drive mode
+     * @param leftX [-1.0 to 1.0] Left stick, right positive
+     * @param leftY [-1.0 to 1.0] Left stick, up positive
+     * @param rightX [-1.0 to 1.0] Right stick, right positive
+     * @param rightY [-1.0 to 1.0] Right stick, up positive
+     * @param isQuickTurn Spin in place instead of curving, in Cheezy drive
+     * @param speedMultiplier Top speed
+     */
+    static void drive(DriveMode mode, double leftX, double leftY, double rightX, double rightY, boolean isQuickTurn, double speedMultiplier) {
+        double throttle = shpThrottle.calculate(leftY, speedMultiplier);
+
+        if (mode == DriveMode.ARCADE_DRIVE){
+            setArcadeDrive(throttle, shpSteering.calculate(leftX, speedMultiplier));
+        } else if (mode == DriveMode.CHEEZY_DRIVE){
+            setCurvatureDrive(throttle, shpSteering.calculate(rightX, 1.0), isQuickTurn, speedMultiplier);
+        } else {
+            setTankDrive(throttle, shpSteering.calculate(rightY, speedMultiplier));
+        }
+    }
+
     /**
      * Sets up tank drive style of chassis control to recieve and process inputs
      * @param powerLeft [-1.0 to 1.0] Power to left side of chassis
@@ -208,77 +214,84 @@ public class Teleoperated {
         setTankDrive(throttle + steering, throttle - steering);
     }
 
+    /**
+     * Sets up cheezy drive style of chassis control, where steering sets how tightly the chassis curves
+     * @param throttle Throttle, already scaled to the top speed
+     * @param wheel [-1.0 to 1.0] Steers. (Left/right)
+     * @param isQuickTurn Spin in place instead of curving
+     * @param scale Top speed
+     */
+    public static void setCurvatureDrive(double throttle, double wheel, boolean isQuickTurn, double scale){
+        crvDrive.calculate(throttle, wheel, isQuickTurn, scale);
+        setTankDrive(crvDrive.getPower_L(), crvDrive.getPower_R());
+    }
+
 
     public static void periodic() {
 
         double speedMultiplier = mSelectedChassisPower.standard;
+        int povDriver = ctlDriver.getPOV();
+        int povOperator = ctlOperator.getPOV();
 
         //Chassis precision and boost buttons (precision slows for minor adjustments, boost accelerates for efficient travel)
-        if (btnChassis_Precision.get()){
+        if (ctlDriver.get(btnChassis_Precision)){
             speedMultiplier = mSelectedChassisPower.precision;
-        } else if (btnChassis_Slow.get()){
+        } else if (ctlDriver.get(btnChassis_Slow)){
             speedMultiplier = mSelectedChassisPower.slow;
-        } else if (btnChassis_Boost.get()){
+        } else if (ctlDriver.get(btnChassis_Boost)){
             speedMultiplier = mSelectedChassisPower.boost;
         }
 
         //Apply selected drive mode
-        if (mSelectedDriveMode == DriveMode.ARCADE_DRIVE){
-            setArcadeDrive(Math.signum(ctlDriver.getLeftY()) * (ctlDriver.getLeftY() * ctlDriver.getLeftY()) * speedMultiplier, (Math.signum(ctlDriver.getLeftX())) * Math.abs(ctlDriver.getLeftX() * ctlDriver.getLeftX() * ctlDriver.getLeftX()) * speedMultiplier);
-        } else if (mSelectedDriveMode == DriveMode.CHEEZY_DRIVE){
-            setArcadeDrive(Math.signum(ctlDriver.getLeftY()) * (ctlDriver.getLeftY() * ctlDriver.getLeftY()) * speedMultiplier, (Math.signum(ctlDriver.getRightX())) * Math.abs(ctlDriver.getRightX() * ctlDriver.getRightX()) * speedMultiplier);
-        } else {
-            setTankDrive(Math.signum(ctlDriver.getLeftY()) * (ctlDriver.getLeftY() * ctlDriver.getLeftY()) * speedMultiplier, (Math.signum(ctlDriver.getRightY())) * (ctlDriver.getRightY() * ctlDriver.getRightY()) * speedMultiplier);
-        }
+        drive(mSelectedDriveMode, ctlDriver.getLeftX(), ctlDriver.getLeftY(), ctlDriver.getRightX(), ctlDriver.getRightY(),
+            ctlDriver.get(btnChassis_Quick_Turn), speedMultiplier);
 
-        if(btnChassis_Brake.get() || btnChassis_Lineup_F.get() || btnChassis_Lineup_B.get()){
+        boolean isLineup_F = povDriver == 0;
+        boolean isLineup_B = povDriver == 180;
+
+        if(ctlDriver.get(btnChassis_Brake) || isLineup_F || isLineup_B){
             Chassis.setDriveNeutralMode(NeutralMode.Brake);
         } else {
             Chassis.setDriveNeutralMode(NeutralMode.Coast/*, NeutralMode.Brake*/);
         }
 
-        if(btnChassis_Lineup_F.get()){
+        if(isLineup_F){
             Chassis.setDrive(.075, .075);
-        } else if(btnChassis_Lineup_B.get()){
+        } else if(isLineup_B){
             Chassis.setDrive(-.075, -.075);
         }
         
         //ELEVATOR
         //TEMPORARY NUMBERS!!!
-        if(btnElevator_Up.get()){
+        if(povOperator == 0){
             Elevator.disableHeightPID();
             Elevator.setLiftPower(0.20);
-        } else if(btnElevator_Down.get()){
+        } else if(povOperator == 180){
             Elevator.disableHeightPID();
             Elevator.setLiftPower(-0.20);
-        } else if(btnElevator_Bottom.getPressed()){
+        } else if(ctlOperator.getPressed(btnElevator_Bottom)){
             Elevator.goToHeight(Elevator.Height.BOTTOM);
-        } else if(btnElevator_Low.getPressed()){
+        } else if(ctlOperator.getPressed(btnElevator_Low)){
             Elevator.goToHeight(Elevator.Height.LOW);
-        } else if(btnElevator_Middle.getPressed()){
+        } else if(ctlOperator.getPressed(btnElevator_Middle)){
             Elevator.goToHeight(Elevator.Height.MID);
-        } else if(btnElevator_High.getPressed()){
+        } else if(ctlOperator.getPressed(btnElevator_High)){
             Elevator.goToHeight(Elevator.Height.HIGH);
         } else {
             Elevator.setLiftPower(0.0);
         }
 
         //MANIPULATOR
-        if(btnManipulator_Extend.getPressed()){
+        if(ctlOperator.getPressed(btnManipulator_Extend)){
             Manipulator.extendArm();
-        } else if(btnManipulator_Retract.getPressed()){
+        } else if(ctlOperator.getPressed(btnManipulator_Retract)){
             Manipulator.retractArm();
         }
 
-        if(btnManipulator_Open.getPressed()){
+        if(ctlOperator.getPressed(btnManipulator_Open)){
             Manipulator.openGrip();
-        } else if(btnManipulator_Close.getPressed()){
+        } else if(ctlOperator.getPressed(btnManipulator_Close)){
             Manipulator.closeGrip();
         }
-
-        //Update subsystems
-        Chassis.periodic();
-        Elevator.periodic();
-        Manipulator.periodic();
     }
 }
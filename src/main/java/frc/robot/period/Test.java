@@ -3,31 +3,81 @@ package frc.robot.period;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 
 import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.molib.dashboard.Entry;
-import frc.molib.hid.XboxController;
 import frc.robot.Robot;
 import frc.robot.subsystem.Chassis;
 import frc.robot.subsystem.Elevator;
 import frc.robot.subsystem.Manipulator;
+import frc.robot.utilities.AsyncLogger;
+import frc.robot.utilities.Controllers;
+import frc.robot.utilities.RelayAutoTuner;
+import frc.robot.utilities.XboxSnapshot;
 
 /**
  * The Test Period
  * <p>
  * Allows for basic robot manipulation to test robot systems.
+ * <p>
+ * Also auto-tunes the Chassis and Elevator PIDs. With a loop picked on the dashboard, entering
+ * Test runs a relay tune on it and publishes the gains it finds for review, they are not applied.
+ * Y restarts the tune, B stops it.
  * @author Celia Peters
  * @author Tavares Mance
  */
 @SuppressWarnings("unused")
 public class Test {
+
+    /** PID loops the auto-tuner can tune, with the relay settings for each. */
+    public enum TuneAxis {
+        NONE("None", 0.0, 0.0, 0.0, 0, 0.0),
+        DRIVE_DISTANCE("Drive Distance", 0.20, 0.5, 36.0, 4, 15.0),
+        DRIVE_ANGLE("Drive Angle", 0.25, 1.0, 45.0, 4, 15.0),
+        LIFT_HEIGHT("Lift Height", 0.10, 0.5, 20.0, 4, 15.0);
+
+        public final String label;
+        public final double amplitude;
+        public final double hysteresis;
+        public final double maxExcursion;
+        public final int cycles;
+        public final double timeout;
+        private TuneAxis(String label, double amplitude, double hysteresis, double maxExcursion, int cycles, double timeout) {
+            this.label = label;
+            this.amplitude = amplitude;
+            this.hysteresis = hysteresis;
+            this.maxExcursion = maxExcursion;
+            this.cycles = cycles;
+            this.timeout = timeout;
+        }
+
+        @Override public String toString() {
+            return label;
+        }
+    }
     
     //Network table
     private static NetworkTable tblTest = Robot.tblPeriod.getSubTable("Test");
     private static NetworkTable tblElevatorPID = tblTest.getSubTable("Elevator PID");
-
-    //Create dashboard entries if necessary
+    private static NetworkTable tblAutoTune = tblTest.getSubTable("Auto Tune");
+
+    //Dashboard Entries
+    private static SendableChooser<TuneAxis> chsTuneAxis = new SendableChooser<TuneAxis>();
+    private static Entry<String> entTune_State = new Entry<String>(tblAutoTune, "State");
+    private static Entry<Double> entTune_Ultimate_Gain = new Entry<Double>(tblAutoTune, "Ultimate Gain");
+    private static Entry<Double> entTune_Ultimate_Period = new Entry<Double>(tblAutoTune, "Ultimate Period");
+    private static Entry<Double> entTune_P = new Entry<Double>(tblAutoTune, "P");
+    private static Entry<Double> entTune_I = new Entry<Double>(tblAutoTune, "I");
+    private static Entry<Double> entTune_D = new Entry<Double>(tblAutoTune, "D");
     
     //Xbox controllers
-    private static XboxController ctlTester = new XboxController(0);
+    private static final XboxSnapshot ctlTester = Controllers.ctlDriver;
+
+    //Buffer variables
+    private static TuneAxis mTuneAxis = TuneAxis.NONE;
+    private static RelayAutoTuner mTuner = null;
+    private static RelayAutoTuner.State mLastTuneState = RelayAutoTuner.State.IDLE;
 
     /**
      * Prevent instances of test class
@@ -41,43 +91,143 @@ public class Test {
         Chassis.setDriveNeutralMode(NeutralMode.Brake);
 
         Disabled.setBreakTimerEnabled(false);
+
+        TuneAxis axis = chsTuneAxis.getSelected();
+        mTuneAxis = axis != null ? axis : TuneAxis.NONE;
+        startTune();
     }
 
     /**
      * Push dropdowns to dashboard if necessary
      */
     public static void initDashboard() {
+        for(TuneAxis axis : TuneAxis.values())
+            if(axis != TuneAxis.NONE) chsTuneAxis.addOption(axis.label, axis);
+        chsTuneAxis.setDefaultOption(TuneAxis.NONE.label, TuneAxis.NONE);
+
+        SmartDashboard.putData("Period/Test/Tune Axis", chsTuneAxis);
+    }
+
+    /**
+     * Read the tuner for the last tune started.
+     * @return Tuner, or null if no tune has been started
+     */
+    public static RelayAutoTuner getTuner() {
+        return mTuner;
+    }
+
+    /** Start tuning the picked loop from where it is now, with a fresh tuner. */
+    private static void startTune() {
+        if(mTuneAxis == TuneAxis.NONE) return;
+        mTuner = new RelayAutoTuner(mTuneAxis.amplitude, mTuneAxis.hysteresis, mTuneAxis.maxExcursion, mTuneAxis.cycles, mTuneAxis.timeout);
+
+        Chassis.disable();
+        Elevator.disable();
+
+        double timestamp = Timer.getFPGATimestamp();
+        switch(mTuneAxis){
+            case DRIVE_DISTANCE:
+                Chassis.resetDistance();
+                mTuner.start(Chassis.getDistance(), timestamp);
+                break;
+            case DRIVE_ANGLE:
+                Chassis.resetAngle();
+                mTuner.start(Chassis.getAngle(), timestamp);
+                break;
+            case LIFT_HEIGHT:
+                mTuner.start(Elevator.Height.LOW.height, timestamp);
+                break;
+            default:
+        }
+        mLastTuneState = RelayAutoTuner.State.RUNNING;
+        entTune_State.set(mTuneAxis.label + ": " + mLastTuneState.label);
+        AsyncLogger.log("Auto-tune started");
+    }
+
+    /** Run one loop of the tune, and publish the gains once it finishes. */
+    private static void runTune() {
+        RelayAutoTuner tuner = mTuner;
+        double timestamp = Timer.getFPGATimestamp();
+
+        switch(mTuneAxis){
+            case DRIVE_DISTANCE: {
+                double power = tuner.calculate(Chassis.getDistance(), timestamp);
+                Chassis.setDrive(power, power);
+                break;
+            }
+            case DRIVE_ANGLE: {
+                double power = tuner.calculate(Chassis.getAngle(), timestamp);
+                Chassis.setDrive(power, -power);
+                break;
+            }
+            case LIFT_HEIGHT: {
+                double power = tuner.calculate(Elevator.getLiftHeight(), timestamp);
+                Elevator.setLiftPower(tuner.getState() == RelayAutoTuner.State.RUNNING ? Elevator.getHoldPower() + power : 0.0);
+                break;
+            }
+            default:
+        }
+
+        RelayAutoTuner.State state = tuner.getState();
+        if(state == mLastTuneState) return;
+        mLastTuneState = state;
+        entTune_State.set(mTuneAxis.label + ": " + state.label);
+
+        //The State entry names the loop these gains are for
+        if(state == RelayAutoTuner.State.DONE){
+            entTune_Ultimate_Gain.set(tuner.getUltimateGain());
+            entTune_Ultimate_Period.set(tuner.getUltimatePeriod());
+            entTune_P.set(tuner.getP());
+            entTune_I.set(tuner.getI());
+            entTune_D.set(tuner.getD());
+            AsyncLogger.log("Auto-tune done, P:", tuner.getP());
+        } else if(state == RelayAutoTuner.State.FAILED){
+            AsyncLogger.log("Auto-tune failed");
+        }
     }
 
     public static void pushDashboardValues(){
     }
 
     public static void periodic() {
+        //Auto-tune has the Chassis and Elevator to itself while it is running
+        if(mTuneAxis != TuneAxis.NONE){
+            if(ctlTester.getPressed(XboxSnapshot.Y)){
+                startTune();
+            } else if(ctlTester.getPressed(XboxSnapshot.B) && mLastTuneState == RelayAutoTuner.State.RUNNING){
+                mTuner.stop();
+                mLastTuneState = RelayAutoTuner.State.IDLE;
+                entTune_State.set(mTuneAxis.label + ": Stopped");
+                Chassis.disable();
+                Elevator.disable();
+            }
+
+            if(mLastTuneState == RelayAutoTuner.State.RUNNING){
+                runTune();
+                return;
+            }
+        }
 
         //controller extend/retract arm simulation to test pneumatics
 
         //controller open/close grip simulation to test pneumatics
 
-        if(ctlTester.getLeftBumper()){
+        if(ctlTester.get(XboxSnapshot.LEFT_BUMPER)){
             Chassis.resetAngle();
         }
 
-        if(ctlTester.getRightBumper()){
+        if(ctlTester.get(XboxSnapshot.RIGHT_BUMPER)){
             Chassis.resetDistance();
         }
 
-        if(ctlTester.getXButtonPressed()){
+        if(ctlTester.getPressed(XboxSnapshot.X)){
             Chassis.resetDistance();
             Chassis.goToDistance(120.00);
         }
 
-        if(ctlTester.getAButtonPressed()){
+        if(ctlTester.getPressed(XboxSnapshot.A)){
             Chassis.resetAngle();
             Chassis.goToAngle(90.00);
         }
-
-        Chassis.periodic();
-        Elevator.periodic();
-        Manipulator.periodic();
     }
 }
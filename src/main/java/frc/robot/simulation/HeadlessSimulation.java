@@ -0,0 +1,219 @@
+package frc.robot.simulation;
+
+import com.ctre.phoenix.unmanaged.Unmanaged;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.Robot;
+import frc.robot.Startup;
+import frc.robot.period.Test;
+import frc.robot.subsystem.Chassis;
+import frc.robot.subsystem.Elevator;
+import frc.robot.utilities.RelayAutoTuner;
+
+/**
+ * Headless Simulation
+ * <p>
+ * Runs the Robot against the Chassis and Elevator physics models with the simulation clock
+ * paused, stepping it by hand so each autonomous sequence finishes as fast as the CPU allows.
+ * Sequence, starting position, and distance control are picked through the same dashboard
+ * choosers the drivers use.
+ * Runs from the Charge Station put a simulated Charge Station behind the robot, and report how
+ * long the robot took to balance on it, from when the balance step started.
+ * <p>
+ * Usage: <code>./gradlew simulateHeadless [--args="'Sequence Label' 'Position Label' ['Control Label']"]</code>.
+ * With no arguments every sequence is run from every starting position, with every distance control.
+ * <p>
+ * With <code>--args="tune"</code>, the Test period auto-tune is run on each PID loop instead, and
+ * the gains it finds are printed.
+ */
+public final class HeadlessSimulation {
+    private static final double PERIOD = TimedRobot.kDefaultPeriod;
+    private static final double AUTONOMOUS_LENGTH = 15.0;
+    private static final String CHARGE_STATION = "Charge Station";
+    private static final String TUNE = "tune";
+    private static final double TUNE_LENGTH = 20.0;
+
+    private static final NetworkTable tblAutonomous = NetworkTableInstance.getDefault()
+        .getTable("SmartDashboard").getSubTable("Period").getSubTable("Autonomous");
+    private static final NetworkTable tblDistance_Control = NetworkTableInstance.getDefault()
+        .getTable("SmartDashboard").getSubTable("Subsystem").getSubTable("Chassis").getSubTable("Distance Control");
+    private static final NetworkTable tblTest = NetworkTableInstance.getDefault()
+        .getTable("SmartDashboard").getSubTable("Period").getSubTable("Test");
+
+    /** Robot with its loop exposed, so the simulation can run it one step at a time. */
+    private static final class SimulatedRobot extends Robot {
+        /** Run one full robot loop, exactly as TimedRobot would. */
+        void step() {
+            loopFunc();
+        }
+    }
+
+    /** Do not make an instance of the simulation. */
+    private HeadlessSimulation(){}
+
+    public static void main(String... args) {
+        if(!HAL.initialize(500, 0))
+            throw new IllegalStateException("Failed to initialize the HAL");
+
+        SimHooks.pauseTiming();
+        DriverStationSim.setDsAttached(true);
+
+        SimulatedRobot robot = new SimulatedRobot();
+        robot.robotInit();
+        Startup.bindDashboard();
+        SmartDashboard.updateValues();
+
+        if(args.length >= 1 && TUNE.equals(args[0])){
+            for(Test.TuneAxis axis : Test.TuneAxis.values())
+                if(axis != Test.TuneAxis.NONE) runTune(robot, axis);
+
+            robot.close();
+            HAL.shutdown();
+            System.exit(0);
+        }
+
+        String[] sequences;
+        String[] positions;
+        String[] controls = getOptions(tblDistance_Control);
+        if(args.length >= 2){
+            sequences = new String[] {args[0]};
+            positions = new String[] {args[1]};
+            if(args.length >= 3) controls = new String[] {args[2]};
+        } else {
+            sequences = getOptions(tblAutonomous.getSubTable("Sequence"));
+            positions = getOptions(tblAutonomous.getSubTable("Starting Position"));
+        }
+
+        for(String control : controls){
+            select(tblDistance_Control, control);
+            for(String sequence : sequences)
+                for(String position : positions)
+                    runAutonomous(robot, sequence, position, control);
+        }
+
+        robot.close();
+        HAL.shutdown();
+        System.exit(0);
+    }
+
+    /**
+     * Read the options a dashboard chooser is offering.
+     * @param chooser Table of the chooser
+     * @return Labels of every option
+     */
+    private static String[] getOptions(NetworkTable chooser) {
+        return chooser.getEntry("options").getStringArray(new String[0]);
+    }
+
+    /**
+     * Select an option on a dashboard chooser, as if the drivers had picked it.
+     * @param chooser Table of the chooser
+     * @param label Label of the option to select
+     */
+    private static void select(NetworkTable chooser, String label) {
+        chooser.getEntry("selected").setString(label);
+        SmartDashboard.updateValues();
+    }
+
+    /**
+     * Run one full autonomous period from a fresh start.
+     * @param robot Robot to drive
+     * @param sequence Label of the sequence to run
+     * @param position Label of the starting position
+     * @param control Label of the distance control, already selected
+     */
+    private static void runAutonomous(SimulatedRobot robot, String sequence, String position, String control) {
+        select(tblAutonomous.getSubTable("Sequence"), sequence);
+        select(tblAutonomous.getSubTable("Starting Position"), position);
+
+        Chassis.setSimStationEnabled(CHARGE_STATION.equals(position));
+        robot.simulationInit();
+        setMode(false);
+        step(robot);
+
+        setMode(true);
+        double balanceStartTime = Double.NaN;
+        double balanceTime = Double.NaN;
+        long start = System.nanoTime();
+        for(double time = 0.0; time < AUTONOMOUS_LENGTH; time += PERIOD){
+            step(robot);
+            if(Double.isNaN(balanceStartTime) && Chassis.isBalancing()) balanceStartTime = time;
+            if(Double.isNaN(balanceTime) && Chassis.isBalanced()) balanceTime = time - balanceStartTime;
+        }
+        double elapsed = (System.nanoTime() - start) / 1.0e6;
+
+        System.out.printf("%-30s %-16s %-22s %8.1f ms   distance %8.2f in   angle %8.2f deg   lift %6.2f in   balanced %s%n",
+            sequence, position, control, elapsed, Chassis.getDistance(), Chassis.getAngle(), Elevator.getLiftHeight(),
+            Double.isNaN(balanceTime) ? "    -" : String.format("%5.2f s", balanceTime));
+
+        setMode(false);
+        step(robot);
+    }
+
+    /**
+     * Run the Test period auto-tune on one loop from a fresh start.
+     * @param robot Robot to drive
+     * @param axis Loop to tune
+     */
+    private static void runTune(SimulatedRobot robot, Test.TuneAxis axis) {
+        tblTest.getSubTable("Tune Axis").getEntry("selected").setString(axis.label);
+        SmartDashboard.updateValues();
+        Chassis.setSimStationEnabled(false);
+
+        robot.simulationInit();
+        setMode(false);
+        step(robot);
+
+        DriverStationSim.setTest(true);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+        DriverStation.refreshData();
+
+        double time = 0.0;
+        step(robot);
+        while(time < TUNE_LENGTH && Test.getTuner().getState() == RelayAutoTuner.State.RUNNING){
+            step(robot);
+            time += PERIOD;
+        }
+
+        RelayAutoTuner tuner = Test.getTuner();
+        System.out.printf("%-16s %-8s after %5.2f s   Ku %8.4f   Tu %6.3f s   P %8.4f   I %8.4f   D %8.4f%n",
+            axis.label, tuner.getState(), time, tuner.getUltimateGain(), tuner.getUltimatePeriod(), tuner.getP(), tuner.getI(), tuner.getD());
+
+        DriverStationSim.setTest(false);
+        setMode(false);
+        step(robot);
+    }
+
+    /**
+     * Switch the simulated Driver Station between disabled and autonomous.
+     * @param isAutonomous True to enable in autonomous, false to disable
+     */
+    private static void setMode(boolean isAutonomous) {
+        DriverStationSim.setAutonomous(isAutonomous);
+        DriverStationSim.setEnabled(isAutonomous);
+        DriverStationSim.notifyNewData();
+        DriverStation.refreshData();
+    }
+
+    /**
+     * Run one robot loop, then step the simulation clock forward by one period.
+     * The robot loop steps the physics models itself through simulationPeriodic.
+     * @param robot Robot to drive
+     */
+    private static void step(SimulatedRobot robot) {
+        //Phoenix only drives simulated motors while it keeps hearing an enable
+        if(DriverStation.isEnabled())
+            Unmanaged.feedEnable(100);
+
+        robot.step();
+        SimHooks.stepTiming(PERIOD);
+    }
+}
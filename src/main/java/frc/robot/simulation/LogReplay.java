@@ -0,0 +1,406 @@
+package frc.robot.simulation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.Robot;
+import frc.robot.Startup;
+import frc.robot.period.Autonomous;
+import frc.robot.subsystem.Chassis;
+import frc.robot.subsystem.Elevator;
+import frc.robot.subsystem.Manipulator;
+import frc.robot.utilities.MatchLog;
+
+/**
+ * Log Replay
+ * <p>
+ * Re-runs the autonomous periods of recorded matches against the current code. Each loop, the
+ * recorded sensor values are fed into the Chassis and Elevator in place of hardware, the autonomous
+ * sequence and subsystems are run, and the outputs they command are compared against the outputs
+ * the robot actually commanded. The simulation clock is stepped by the recorded loop times, so a
+ * replay always gives the same result, and runs as fast as the CPU allows.
+ * <p>
+ * The Lift is controlled by its own loop, four times a robot loop, so it is replayed in two halves.
+ * Every recorded control loop run is re-run on the inputs and command it actually ran on, and its
+ * power compared, up to the run each robot loop read its status from. The command each robot loop
+ * hands over is compared against the one it recorded. If the robot dropped control loop runs
+ * during autonomous, they cannot be lined up, so the log is reported as incomplete instead.
+ * <p>
+ * Only autonomous is replayed, driver input is not recorded.
+ * <p>
+ * Usage: <code>./gradlew replayLogs --args="logs/match_1.wpilog logs/"</code>, with any mix of
+ * log files and folders of them.
+ */
+public final class LogReplay {
+    /** Output differences smaller than this are not counted as a mismatch. */
+    private static final double TOLERANCE = 0.01;
+
+    private static final NetworkTable tblAutonomous = NetworkTableInstance.getDefault()
+        .getTable("SmartDashboard").getSubTable("Period").getSubTable("Autonomous");
+
+    /** How a replayed log compared. */
+    private enum Result {
+        MATCHED,
+        MISMATCHED,
+        INCOMPLETE
+    }
+
+    /** Every recorded value for one robot loop. Values that did not change hold the last recording. */
+    private static final class Frame {
+        private String mode = MatchLog.MODE_DISABLED;
+        private String sequence = null;
+        private String position = null;
+        private String alliance = null;
+
+        private long chassisTimestamp = 0;
+        private double distance_L = 0.0;
+        private double distance_R = 0.0;
+        private double driveSpeed = 0.0;
+        private double angle = 0.0;
+        private double pitch = 0.0;
+        private double pitchRate = 0.0;
+        private double power_L = 0.0;
+        private double power_R = 0.0;
+
+        private long elevatorTimestamp = 0;
+        private double height = 0.0;
+        private double liftSpeed = 0.0;
+        private boolean isAtBottom = false;
+        private boolean isAtTop = false;
+        private long statusTimestamp = 0;
+        private boolean isHeightControl = false;
+        private double heightTarget = 0.0;
+        private double commandPower = 0.0;
+        private int commandId = 0;
+        private long runsDropped = 0;
+
+        private Frame copy() {
+            Frame frame = new Frame();
+            frame.mode = mode;
+            frame.sequence = sequence;
+            frame.position = position;
+            frame.alliance = alliance;
+            frame.chassisTimestamp = chassisTimestamp;
+            frame.distance_L = distance_L;
+            frame.distance_R = distance_R;
+            frame.driveSpeed = driveSpeed;
+            frame.angle = angle;
+            frame.pitch = pitch;
+            frame.pitchRate = pitchRate;
+            frame.power_L = power_L;
+            frame.power_R = power_R;
+            frame.elevatorTimestamp = elevatorTimestamp;
+            frame.height = height;
+            frame.liftSpeed = liftSpeed;
+            frame.isAtBottom = isAtBottom;
+            frame.isAtTop = isAtTop;
+            frame.statusTimestamp = statusTimestamp;
+            frame.isHeightControl = isHeightControl;
+            frame.heightTarget = heightTarget;
+            frame.commandPower = commandPower;
+            frame.commandId = commandId;
+            frame.runsDropped = runsDropped;
+            return frame;
+        }
+    }
+
+    /** Running comparison of one output. */
+    private static final class Difference {
+        private final String name;
+        private double max = 0.0;
+        private double sumSquares = 0.0;
+        private int mismatches = 0;
+        private int count = 0;
+
+        private Difference(String name) {
+            this.name = name;
+        }
+
+        private void add(double recorded, double replayed) {
+            double error = Math.abs(replayed - recorded);
+            max = Math.max(max, error);
+            sumSquares += error * error;
+            if(error > TOLERANCE) mismatches++;
+            count++;
+        }
+
+        private void addMismatch() {
+            mismatches++;
+            count++;
+        }
+
+        @Override public String toString() {
+            return String.format("%s: max %.4f  rms %.4f  mismatched %d/%d",
+                name, max, count > 0 ? Math.sqrt(sumSquares / count) : 0.0, mismatches, count);
+        }
+    }
+
+    //Recorded time the simulation clock has been stepped to, in microseconds
+    private static long mClock = 0;
+
+    /** Do not make an instance of the replay. */
+    private LogReplay(){}
+
+    public static void main(String... args) throws IOException {
+        if(!HAL.initialize(500, 0))
+            throw new IllegalStateException("Failed to initialize the HAL");
+
+        SimHooks.pauseTiming();
+        DriverStationSim.setDsAttached(true);
+
+        Chassis.init();
+        Elevator.init();
+        Manipulator.init();
+        Startup.bindDashboard();
+        SmartDashboard.updateValues();
+
+        List<File> files = new ArrayList<File>();
+        for(String arg : args)
+            collect(new File(arg), files);
+
+        int mismatchedLogs = 0;
+        int incompleteLogs = 0;
+        for(File file : files){
+            switch(replay(file)){
+                case MISMATCHED: mismatchedLogs++; break;
+                case INCOMPLETE: incompleteLogs++; break;
+                default:
+            }
+        }
+        System.out.printf("%d of %d logs replayed with mismatched outputs, %d incomplete%n", mismatchedLogs, files.size(), incompleteLogs);
+
+        HAL.shutdown();
+        System.exit(mismatchedLogs > 0 ? 1 : 0);
+    }
+
+    /**
+     * Add a log file, or every log file in a folder.
+     * @param file File or folder
+     * @param files List to add to
+     */
+    private static void collect(File file, List<File> files) {
+        if(file.isDirectory()){
+            File[] children = file.listFiles();
+            if(children == null) return;
+            Arrays.sort(children);
+            for(File child : children)
+                collect(child, files);
+        } else if(file.getName().endsWith(".wpilog")){
+            files.add(file);
+        }
+    }
+
+    /**
+     * Replay every autonomous period in a log and print how the outputs compare.
+     * @param file Log to replay
+     * @return Whether every output matched, or the log was missing control loop runs
+     */
+    private static Result replay(File file) throws IOException {
+        List<double[]> runs = new ArrayList<double[]>();
+        List<Frame> frames = read(file, runs);
+
+        Difference diffPower_L = new Difference("Chassis Power L");
+        Difference diffPower_R = new Difference("Chassis Power R");
+        Difference diffLift_Command = new Difference("Lift Command");
+        Difference diffLift = new Difference("Lift Power");
+
+        long start = System.nanoTime();
+        boolean wasAutonomous = false;
+        int lastCommandId = 0;
+        long lastRunsDropped = 0;
+        long runsDropped = 0;
+        int nextRun = 0;
+        mClock = 0;
+        for(Frame frame : frames){
+            boolean isAutonomous = MatchLog.MODE_AUTONOMOUS.equals(frame.mode);
+
+            if(isAutonomous && !wasAutonomous){
+                select("Sequence", frame.sequence);
+                select("Starting Position", frame.position);
+                setAlliance(frame.alliance);
+                mClock = frame.chassisTimestamp;
+                Autonomous.init();
+
+                //Start the control from the run the first loop read its status from
+                while(nextRun + 1 < runs.size() && (long)runs.get(nextRun + 1)[Elevator.RUN_TIMESTAMP] <= frame.statusTimestamp)
+                    nextRun++;
+                if(nextRun < runs.size()) Elevator.primeReplay(runs.get(nextRun), lastCommandId);
+            }
+            wasAutonomous = isAutonomous;
+            lastCommandId = frame.commandId;
+            //Runs dropped since the last loop, which may be the runs this loop reads
+            if(isAutonomous) runsDropped += frame.runsDropped - lastRunsDropped;
+            lastRunsDropped = frame.runsDropped;
+            if(!isAutonomous) continue;
+
+            //Control loop runs this loop read the status of, each on the clock it ran at
+            for(; nextRun < runs.size() && (long)runs.get(nextRun)[Elevator.RUN_TIMESTAMP] <= frame.statusTimestamp; nextRun++){
+                double[] run = runs.get(nextRun);
+                stepClock((long)run[Elevator.RUN_TIMESTAMP]);
+                diffLift.add(run[Elevator.RUN_POWER], Elevator.replayRun(run));
+            }
+
+            //Keep the simulation clock moving with the recording, PID timing reads it
+            stepClock(frame.chassisTimestamp);
+
+            Chassis.injectInputs(frame.chassisTimestamp, frame.distance_L, frame.distance_R, frame.driveSpeed, frame.angle, frame.pitch, frame.pitchRate);
+            Elevator.injectInputs(frame.elevatorTimestamp, frame.height, frame.liftSpeed, frame.isAtBottom, frame.isAtTop);
+            Autonomous.periodic();
+            Robot.act();
+
+            diffPower_L.add(frame.power_L, Chassis.getDrivePower_L());
+            diffPower_R.add(frame.power_R, Chassis.getDrivePower_R());
+            if(frame.isHeightControl != Elevator.isHeightPIDEnabled())
+                diffLift_Command.addMismatch();
+            else if(frame.isHeightControl)
+                diffLift_Command.add(frame.heightTarget, Elevator.getHeightTarget());
+            else
+                diffLift_Command.add(frame.commandPower, Elevator.getCommandedPower());
+        }
+        double elapsed = (System.nanoTime() - start) / 1.0e6;
+
+        System.out.printf("%s  (%d loops, %d control runs in %.1f ms)%n", file.getName(), diffPower_L.count, diffLift.count, elapsed);
+        System.out.println("    " + diffPower_L);
+        System.out.println("    " + diffPower_R);
+        System.out.println("    " + diffLift_Command);
+        System.out.println("    " + diffLift);
+
+        if(runsDropped > 0){
+            System.out.printf("    Incomplete: %d control loop runs dropped during autonomous%n", runsDropped);
+            return Result.INCOMPLETE;
+        }
+        boolean isMatched = diffPower_L.mismatches == 0 && diffPower_R.mismatches == 0 && diffLift_Command.mismatches == 0 && diffLift.mismatches == 0;
+        return isMatched ? Result.MATCHED : Result.MISMATCHED;
+    }
+
+    /**
+     * Step the simulation clock forward to a recorded time. Never steps back, the Chassis and
+     * Elevator are sampled by different threads, so their times can cross.
+     * @param timestamp Recorded time in microseconds
+     */
+    private static void stepClock(long timestamp) {
+        if(timestamp <= mClock) return;
+        SimHooks.stepTiming((timestamp - mClock) / 1.0e6);
+        mClock = timestamp;
+    }
+
+    /**
+     * Read a log into one frame per recorded loop. A loop starts with its Chassis timestamp, the
+     * robot mode is recorded just before that, so it is held until the loop it belongs to starts.
+     * @param file Log to read
+     * @param runs List to add every recorded Lift control loop run to, in order
+     * @return Every recorded loop, in order
+     */
+    private static List<Frame> read(File file, List<double[]> runs) throws IOException {
+        DataLogReader reader = new DataLogReader(file.getPath());
+        if(!reader.isValid())
+            throw new IOException("Not a valid log: " + file);
+
+        Map<Integer, String> names = new HashMap<Integer, String>();
+        List<Frame> frames = new ArrayList<Frame>();
+        Frame current = new Frame();
+        String pendingMode = current.mode;
+        boolean hasFrame = false;
+
+        for(DataLogRecord record : reader){
+            if(record.isStart()){
+                DataLogRecord.StartRecordData data = record.getStartData();
+                names.put(data.entry, data.name);
+                continue;
+            }
+            if(record.isControl()) continue;
+
+            String name = names.get(record.getEntry());
+            if(name == null) continue;
+
+            switch(name){
+                case MatchLog.MODE_CHANNEL: pendingMode = record.getString(); break;
+                case "Chassis/Timestamp":
+                    if(hasFrame) frames.add(current.copy());
+                    hasFrame = true;
+                    current.mode = pendingMode;
+                    current.chassisTimestamp = record.getInteger();
+                    break;
+                case "Chassis/Distance L": current.distance_L = record.getDouble(); break;
+                case "Chassis/Distance R": current.distance_R = record.getDouble(); break;
+                case "Chassis/Speed": current.driveSpeed = record.getDouble(); break;
+                case "Chassis/Angle": current.angle = record.getDouble(); break;
+                case "Chassis/Pitch": current.pitch = record.getDouble(); break;
+                case "Chassis/Pitch Rate": current.pitchRate = record.getDouble(); break;
+                case "Chassis/Power L": current.power_L = record.getDouble(); break;
+                case "Chassis/Power R": current.power_R = record.getDouble(); break;
+                case "Elevator/Timestamp": current.elevatorTimestamp = record.getInteger(); break;
+                case "Elevator/Height": current.height = record.getDouble(); break;
+                case "Elevator/Speed": current.liftSpeed = record.getDouble(); break;
+                case "Elevator/Bottom": current.isAtBottom = record.getBoolean(); break;
+                case "Elevator/Top": current.isAtTop = record.getBoolean(); break;
+                case "Elevator/Status Timestamp": current.statusTimestamp = record.getInteger(); break;
+                case "Elevator/Command Height Control": current.isHeightControl = record.getBoolean(); break;
+                case "Elevator/Command Height": current.heightTarget = record.getDouble(); break;
+                case "Elevator/Command Power": current.commandPower = record.getDouble(); break;
+                case "Elevator/Command Id": current.commandId = (int)record.getInteger(); break;
+                case "Elevator/Control Run": runs.add(record.getDoubleArray()); break;
+                case "Elevator/Control Runs Dropped": current.runsDropped = record.getInteger(); break;
+                case "Autonomous/Sequence": current.sequence = record.getString(); break;
+                case "Autonomous/Starting Position": current.position = record.getString(); break;
+                case "Autonomous/Alliance": current.alliance = record.getString(); break;
+                default:
+            }
+        }
+        if(hasFrame) frames.add(current);
+
+        //The selections are recorded on the first autonomous loop, fill them back over the whole period
+        String sequence = null;
+        String position = null;
+        String alliance = null;
+        for(int i = frames.size() - 1; i >= 0; i--){
+            Frame frame = frames.get(i);
+            if(frame.sequence != null) sequence = frame.sequence;
+            if(frame.position != null) position = frame.position;
+            if(frame.alliance != null) alliance = frame.alliance;
+            frame.sequence = sequence;
+            frame.position = position;
+            frame.alliance = alliance;
+        }
+
+        return frames;
+    }
+
+    /**
+     * Select an option on a dashboard chooser, as if the drivers had picked it.
+     * @param chooser Name of the chooser under the Autonomous table
+     * @param label Label of the option to select, ignored if it was not recorded
+     */
+    private static void select(String chooser, String label) {
+        if(label == null) return;
+        tblAutonomous.getSubTable(chooser).getEntry("selected").setString(label);
+        SmartDashboard.updateValues();
+    }
+
+    /**
+     * Put the simulated Driver Station on the recorded alliance, in autonomous.
+     * @param alliance Name of the alliance
+     */
+    private static void setAlliance(String alliance) {
+        DriverStationSim.setAllianceStationId("Blue".equals(alliance) ? AllianceStationID.Blue1 : AllianceStationID.Red1);
+        DriverStationSim.setAutonomous(true);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+        DriverStation.refreshData();
+    }
+}
@@ -2,15 +2,39 @@ package frc.robot.subsystem;
 
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
-import com.ctre.phoenix.motorcontrol.can.WPI_TalonFX;
-
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.can.TalonFXSimCollection;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.SimpleMotorFeedforward;
+import edu.wpi.first.math.filter.LinearFilter;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.DifferentialDriveOdometry;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.wpilibj.ADXRS450_Gyro;
+import edu.wpi.first.wpilibj.BuiltInAccelerometer;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.ADXRS450_GyroSim;
+import edu.wpi.first.wpilibj.simulation.BuiltInAccelerometerSim;
+import edu.wpi.first.wpilibj.simulation.DifferentialDrivetrainSim;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.molib.PIDController;
 import frc.molib.dashboard.Entry;
 import frc.molib.sensors.MagEncoder;
 import frc.molib.utilities.Console;
 import frc.robot.Robot;
+import frc.robot.utilities.CachedTalonFX;
+import frc.robot.utilities.LoopProfiler;
+import frc.robot.utilities.LoopProfiler.Phase;
+import frc.robot.utilities.MatchLog;
+import frc.robot.utilities.SensorSampler;
+import frc.robot.utilities.SeqLock;
+import frc.robot.utilities.TelemetryScheduler.Rate;
 
 /**
  * The Chassis Subsystem
@@ -23,34 +47,184 @@ import frc.robot.Robot;
 @SuppressWarnings("unused")
 public class Chassis {
 
+    /** Where drive distance control runs. */
+    public enum DistanceControl {
+        /** Profile, feedforward, and PID run on the RoboRIO each loop. */
+        PROFILED("Profiled (RoboRIO)"),
+        /** Motion Magic runs on the Falcons at 1 kHz. */
+        MOTION_MAGIC("Motion Magic (Falcon)");
+
+        public final String label;
+        private DistanceControl(String label) {
+            this.label = label;
+        }
+
+        @Override public String toString() {
+            return label;
+        }
+    }
+
+    //Drive constants
+    private static final double DRIVE_GEAR_RATIO = 5.8226;
+    private static final double DRIVE_WHEEL_CORRECTION = 180.00 / 185.56;
+    private static final double DRIVE_INCHES_PER_PULSE = ((1.0000 / DRIVE_GEAR_RATIO) / 2048.0000) * (4.0000 * Math.PI) * DRIVE_WHEEL_CORRECTION;
+
+    //Drive profile constants, the drive tops out around 222 in/s at full power
+    private static final double DRIVE_MAX_SPEED = 100.0;
+    private static final double DRIVE_MAX_ACCELERATION = 120.0;
+    private static final double DRIVE_kS = 0.02;
+    private static final double DRIVE_kV = 1.0 / 222.0;
+    private static final double DRIVE_kA = 0.002;
+
+    //Onboard closed loop constants, converted from the ones above into sensor units per 100ms
+    private static final int DRIVE_SLOT = 0;
+    private static final int DRIVE_CONFIG_TIMEOUT = 30;
+    private static final double DRIVE_TALON_kP = 0.05 * 1023.0 * DRIVE_INCHES_PER_PULSE;
+    private static final double DRIVE_TALON_kF = 1023.0 * DRIVE_kV * DRIVE_INCHES_PER_PULSE * 10.0;
+    private static final double DRIVE_TALON_CRUISE = DRIVE_MAX_SPEED / DRIVE_INCHES_PER_PULSE / 10.0;
+    private static final double DRIVE_TALON_ACCELERATION = DRIVE_MAX_ACCELERATION / DRIVE_INCHES_PER_PULSE / 10.0;
+    private static final double DRIVE_TALON_TOLERANCE = 0.25 / DRIVE_INCHES_PER_PULSE;
+
+    //Heading correction while driving a distance, in power per degree off
+    private static final double DRIVE_HEADING_kP = 0.01;
+
+    //Balance constants, tilt is in degrees with the front of the Chassis up being positive.
+    //The RoboRIO is mounted flat, with its X axis pointing toward the front of the Chassis
+    private static final double GRAVITY = 386.09;
+    private static final double BALANCE_FILTER_TIME = 0.1;
+    private static final double BALANCE_MAX_POWER = 0.2;
+    private static final double BALANCE_TOLERANCE = 2.5;
+    private static final double BALANCE_SETTLE_TIME = 0.5;
+    //Once the platform swings back toward level faster than this, in degrees per second, stop and let it settle
+    private static final double BALANCE_TIPPING_RATE = 10.0;
+
+    //Simulated Charge Station, in inches along the path from where the simulated Chassis starts
+    private static final double SIM_STATION_CENTER = -96.0;
+    private static final double SIM_STATION_PLATFORM_LENGTH = 48.0;
+    private static final double SIM_STATION_RAMP_LENGTH = 14.0;
+    private static final double SIM_STATION_RAMP_ANGLE = 11.0;
+    private static final double SIM_STATION_MAX_ANGLE = 15.0;
+    private static final double SIM_STATION_DEGREES_PER_INCH = 1.5;
+    private static final double SIM_STATION_TIME_CONSTANT = 0.3;
+
     //Create Network Table
     private static NetworkTable tblChassis = Robot.tblSubsystem.getSubTable("Chassis");
 
-    //Create drive motors
-    private static WPI_TalonFX mtrDrive_L1 = new WPI_TalonFX(1);
-    private static WPI_TalonFX mtrDrive_L2 = new WPI_TalonFX(2);
-    private static WPI_TalonFX mtrDrive_R1 = new WPI_TalonFX(3);
-    private static WPI_TalonFX mtrDrive_R2 = new WPI_TalonFX(4);
+    //Create drive motors, cached so unchanged outputs are not resent every loop
+    private static CachedTalonFX mtrDrive_L1 = new CachedTalonFX(1);
+    private static CachedTalonFX mtrDrive_L2 = new CachedTalonFX(2);
+    private static CachedTalonFX mtrDrive_R1 = new CachedTalonFX(3);
+    private static CachedTalonFX mtrDrive_R2 = new CachedTalonFX(4);
 
-    //Create Encoders to measure drive motor
-    private static MagEncoder encDrive = new MagEncoder(mtrDrive_L1);
-    private static ADXRS450_Gyro gyrDrive = new ADXRS450_Gyro();
+    //Create Encoders to measure drive motor. They are never reset, so odometry sees one continuous count
+    private static MagEncoder encDrive_L = new MagEncoder(mtrDrive_L1);
+    private static MagEncoder encDrive_R = new MagEncoder(mtrDrive_R1);
+    //The gyro calibrates for several seconds when created, so it is created by initGyro(), not here
+    private static volatile ADXRS450_Gyro gyrDrive = null;
+    //The built in accelerometer senses how far the Chassis is tipped
+    private static BuiltInAccelerometer accDrive = new BuiltInAccelerometer();
 
     //PID Controllers
     private static PIDController pidDrive_Distance = new PIDController(0.05, 0.0, 0.0);
     private static PIDController pidDrive_Angle = new PIDController(0.01, 0.0, 0.001);
+    private static PIDController pidDrive_Balance = new PIDController(0.012, 0.0, 0.0);
+
+    //Filters, run on the sensor sampler thread to smooth out the accelerometer
+    private static LinearFilter fltPitch = LinearFilter.singlePoleIIR(BALANCE_FILTER_TIME, SensorSampler.PERIOD);
+    private static LinearFilter fltPitch_Rate = LinearFilter.singlePoleIIR(BALANCE_FILTER_TIME, SensorSampler.PERIOD);
+
+    //Motion Profiles, the distance PID tracks the profile while the feedforward does most of the driving
+    private static final TrapezoidProfile.Constraints DRIVE_CONSTRAINTS = new TrapezoidProfile.Constraints(DRIVE_MAX_SPEED, DRIVE_MAX_ACCELERATION);
+    private static SimpleMotorFeedforward ffDrive = new SimpleMotorFeedforward(DRIVE_kS, DRIVE_kV, DRIVE_kA);
+    private static TrapezoidProfile prfDrive_Distance = new TrapezoidProfile(DRIVE_CONSTRAINTS, new TrapezoidProfile.State());
+
+    //Odometry, in inches, counter-clockwise positive like the rest of WPILib. Updated by the sensor sampler
+    private static final Object mOdometryLock = new Object();
+    private static DifferentialDriveOdometry odoDrive = new DifferentialDriveOdometry(new Rotation2d(), 0.0, 0.0);
 
     //Dashboard Entries
     private static Entry<Double> entDrive_Distance = new Entry<Double>(tblChassis, "Drive Distance");
     private static Entry<Double> entDrive_Speed = new Entry<Double>(tblChassis, "Drive Speed");
     private static Entry<Double> entDrive_Angle = new Entry<Double>(tblChassis, "Drive Angle");
+    private static Entry<Double> entDrive_Time_Remaining = new Entry<Double>(tblChassis, "Drive Time Remaining");
+    private static Entry<Double> entDrive_Pitch = new Entry<Double>(tblChassis, "Drive Pitch");
+    private static Entry<Double> entPose_X = new Entry<Double>(tblChassis, "Pose X");
+    private static Entry<Double> entPose_Y = new Entry<Double>(tblChassis, "Pose Y");
+    private static Entry<Double> entPose_Heading = new Entry<Double>(tblChassis, "Pose Heading");
     private static Entry<Boolean> entOn_Target_Distance = new Entry<Boolean>(tblChassis, "On Target Distance");
     private static Entry<Boolean> entOn_Target_Angle = new Entry<Boolean>(tblChassis, "On Target Angle");
-
+    private static Entry<Boolean> entBalanced = new Entry<Boolean>(tblChassis, "Balanced");
+    private static SendableChooser<DistanceControl> chsDistance_Control = new SendableChooser<DistanceControl>();
+
+    //Match Log Channels, created by initLog()
+    private static MatchLog.IntegerChannel logTimestamp;
+    private static MatchLog.DoubleChannel logDistance_L;
+    private static MatchLog.DoubleChannel logDistance_R;
+    private static MatchLog.DoubleChannel logSpeed;
+    private static MatchLog.DoubleChannel logAngle;
+    private static MatchLog.DoubleChannel logPower_L;
+    private static MatchLog.DoubleChannel logPower_R;
+    private static MatchLog.DoubleChannel logDistance_Setpoint;
+    private static MatchLog.DoubleChannel logAngle_Setpoint;
+    private static MatchLog.BooleanChannel logDistance_Onboard;
+    private static MatchLog.DoubleChannel logPitch;
+    private static MatchLog.DoubleChannel logPitch_Rate;
+    private static MatchLog.BooleanChannel logBalancing;
+
+
+    /** Sensor values, copied from the latest sample once at the start of each loop. */
+    private static final class Inputs {
+        private long timestamp = 0;
+        private double distance_L = 0.0;
+        private double distance_R = 0.0;
+        private double speed = 0.0;
+        private double angle = 0.0;
+        private double pitch = 0.0;
+        private double pitchRate = 0.0;
+        private double error_L = 0.0;
+        private double error_R = 0.0;
+        private double trajectory_L = 0.0;
+        private double trajectory_R = 0.0;
+    }
 
     //Buffer variables
+    private static final Inputs mInputs = new Inputs();
+    private static final Inputs mSample = new Inputs();
+    private static final SeqLock mSampleLock = new SeqLock();
     private static double mChassisPower_L = 0.0;
     private static double mChassisPower_R = 0.0;
+    private static double mProfileStartTime = 0.0;
+    private static double mProfileLastTime = 0.0;
+    private static double mProfileLastSpeed = 0.0;
+    private static boolean mIsDistanceOnboard = false;
+    private static double mDistanceTarget_L = 0.0;
+    private static double mDistanceTarget_R = 0.0;
+    private static double mDistanceOffset_L = 0.0;
+    private static double mDistanceOffset_R = 0.0;
+    private static double mAngleOffset = 0.0;
+    private static double mHeadingTarget = 0.0;
+    private static double mDistanceSetpoint = 0.0;
+    private static double mAngleSetpoint = 0.0;
+    private static volatile Pose2d mPose = new Pose2d();
+
+    //Last readings taken by the sensor sampler
+    private static double mOdometryDistance_L = 0.0;
+    private static double mOdometryDistance_R = 0.0;
+    private static double mOdometryAngle = 0.0;
+    private static long mLastSampleTime = 0;
+    private static double mLastSampleSpeed = 0.0;
+    private static double mLastSamplePitch = 0.0;
+
+    //Simulation models, only created when running on the desktop
+    private static DifferentialDrivetrainSim simDrive;
+    private static TalonFXSimCollection simDrive_L;
+    private static TalonFXSimCollection simDrive_R;
+    private static ADXRS450_GyroSim simGyro;
+    private static BuiltInAccelerometerSim simAccelerometer;
+    private static boolean mIsSimStationEnabled = false;
+    private static double mSimStationAngle = 0.0;
+    private static double mSimLastSpeed = 0.0;
+
     /** Do not make an instance of the chassis.  */
     private Chassis(){}
 
@@ -86,10 +260,33 @@ public class Chassis {
         mtrDrive_R2.setNeutralMode(NeutralMode.Coast);
 
         //Configure Encoders
-        encDrive.configDistancePerPulse(((1.0000/(5.8226))/2048.0000)*(4.0000*Math.PI)*(180.00/185.56));
-        encDrive.reset();
+        encDrive_L.configDistancePerPulse(DRIVE_INCHES_PER_PULSE);
+        encDrive_R.configDistancePerPulse(DRIVE_INCHES_PER_PULSE);
+        encDrive_L.reset();
+        encDrive_R.reset();
 
         //Configure PIDs
+        configPIDs();
+
+        //Configure onboard closed loops, each side runs its own off its integrated sensor
+        for(CachedTalonFX mtrDrive : new CachedTalonFX[] {mtrDrive_L1, mtrDrive_R1}){
+            mtrDrive.config_kP(DRIVE_SLOT, DRIVE_TALON_kP, DRIVE_CONFIG_TIMEOUT);
+            mtrDrive.config_kI(DRIVE_SLOT, 0.0, DRIVE_CONFIG_TIMEOUT);
+            mtrDrive.config_kD(DRIVE_SLOT, 0.0, DRIVE_CONFIG_TIMEOUT);
+            mtrDrive.config_kF(DRIVE_SLOT, DRIVE_TALON_kF, DRIVE_CONFIG_TIMEOUT);
+            mtrDrive.configAllowableClosedloopError(DRIVE_SLOT, DRIVE_TALON_TOLERANCE, DRIVE_CONFIG_TIMEOUT);
+            mtrDrive.configMotionCruiseVelocity(DRIVE_TALON_CRUISE, DRIVE_CONFIG_TIMEOUT);
+            mtrDrive.configMotionAcceleration(DRIVE_TALON_ACCELERATION, DRIVE_CONFIG_TIMEOUT);
+            mtrDrive.selectProfileSlot(DRIVE_SLOT, 0);
+            mtrDrive.setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, SensorSampler.STATUS_FRAME_PERIOD, DRIVE_CONFIG_TIMEOUT);
+        }
+
+        //Reset sensors
+        resetDistance();
+    }
+
+    /** Configure the PIDs. */
+    static void configPIDs() {
         pidDrive_Distance.setTolerance(0.25);
         pidDrive_Distance.configAtSetpointTime(0.125);
         pidDrive_Distance.configOutputRange(-0.35, 0.35);
@@ -98,63 +295,349 @@ public class Chassis {
         pidDrive_Angle.configAtSetpointTime(0.125);
         pidDrive_Angle.configOutputRange(-0.35, 0.35);
 
-        //Calibtrate sensors
+        pidDrive_Balance.setTolerance(BALANCE_TOLERANCE);
+        pidDrive_Balance.configAtSetpointTime(BALANCE_SETTLE_TIME);
+        pidDrive_Balance.configOutputRange(-BALANCE_MAX_POWER, BALANCE_MAX_POWER);
+    }
+
+    /**
+     * Creates and calibrates the gyro. This blocks for several seconds on the robot, so it is
+     * meant to run in the background. Angle readings stay at zero until it has finished.
+     */
+    public static void initGyro() {
         Console.logMsg("Calibrating gyro...");
-        gyrDrive.calibrate();
+        ADXRS450_Gyro gyro = new ADXRS450_Gyro();
+        gyro.reset();
+        gyrDrive = gyro;
         Console.logMsg("Calibration complete.");
+    }
 
-        //Reset sensors
-        resetDistance();
-        resetAngle();
+    /**
+     * Read whether the gyro has finished calibrating.
+     * @return True once angle readings can be trusted
+     */
+    public static boolean isGyroReady() {
+        return gyrDrive != null;
+    }
+
+    /**
+     * Sets up the drivetrain physics model. Calling it again puts the simulated robot back
+     * at rest at the origin.
+     */
+    public static void simulationInit() {
+        simDrive = new DifferentialDrivetrainSim(
+            DCMotor.getFalcon500(2),
+            DRIVE_GEAR_RATIO,
+            7.5,
+            Units.lbsToKilograms(125.0),
+            Units.inchesToMeters(2.0 * DRIVE_WHEEL_CORRECTION),
+            Units.inchesToMeters(22.0),
+            null);
+        simDrive_L = mtrDrive_L1.getSimCollection();
+        simDrive_R = mtrDrive_R1.getSimCollection();
+        simGyro = new ADXRS450_GyroSim(gyrDrive);
+        simAccelerometer = new BuiltInAccelerometerSim(accDrive);
+
+        //Put the sensors and odometry back at the origin along with the model
+        simDrive_L.setIntegratedSensorRawPosition(0);
+        simDrive_R.setIntegratedSensorRawPosition(0);
+        simGyro.setAngle(0.0);
+        simAccelerometer.setX(0.0);
+        simAccelerometer.setZ(1.0);
+        mSimStationAngle = 0.0;
+        mSimLastSpeed = 0.0;
+        synchronized(mOdometryLock){
+            mOdometryDistance_L = mOdometryDistance_R = mOdometryAngle = 0.0;
+            odoDrive.resetPosition(new Rotation2d(), 0.0, 0.0, new Pose2d());
+            mPose = new Pose2d();
+        }
+        mInputs.distance_L = mInputs.distance_R = mInputs.angle = 0.0;
+        mDistanceOffset_L = mDistanceOffset_R = mAngleOffset = 0.0;
     }
 
-    /** Initializing dashboard options. */
+    /**
+     * Steps the drivetrain physics model one loop and feeds the results back into the
+     * simulated Falcon sensors and gyro.
+     */
+    public static void simulationPeriodic() {
+        simDrive_L.setBusVoltage(RobotController.getBatteryVoltage());
+        simDrive_R.setBusVoltage(RobotController.getBatteryVoltage());
+
+        //SimCollection values ignore setInverted(), so the left side has to be flipped by hand
+        simDrive.setInputs(-simDrive_L.getMotorOutputLeadVoltage(), simDrive_R.getMotorOutputLeadVoltage());
+        simDrive.update(0.02);
+
+        double distance_L = Units.metersToInches(simDrive.getLeftPositionMeters());
+        double distance_R = Units.metersToInches(simDrive.getRightPositionMeters());
+        double speed_L = Units.metersToInches(simDrive.getLeftVelocityMetersPerSecond());
+        double speed_R = Units.metersToInches(simDrive.getRightVelocityMetersPerSecond());
+
+        simDrive_L.setIntegratedSensorRawPosition((int)(-distance_L / DRIVE_INCHES_PER_PULSE));
+        simDrive_L.setIntegratedSensorVelocity((int)(-speed_L / DRIVE_INCHES_PER_PULSE / 10.0));
+        simDrive_R.setIntegratedSensorRawPosition((int)(distance_R / DRIVE_INCHES_PER_PULSE));
+        simDrive_R.setIntegratedSensorVelocity((int)(speed_R / DRIVE_INCHES_PER_PULSE / 10.0));
+
+        //The ADXRS450 reads clockwise positive, the physics model counter-clockwise positive
+        simGyro.setAngle(-simDrive.getHeading().getDegrees());
+
+        //The accelerometer feels gravity along the tilt, plus the Chassis speeding up and slowing down
+        double speed = (speed_L + speed_R) / 2.0;
+        double pitch = Math.toRadians(getSimStationPitch(Units.metersToInches(simDrive.getPose().getX())));
+        simAccelerometer.setX(Math.sin(pitch) + (speed - mSimLastSpeed) / 0.02 / GRAVITY);
+        simAccelerometer.setZ(Math.cos(pitch));
+        mSimLastSpeed = speed;
+    }
+
+    /**
+     * Put a Charge Station behind where the simulated Chassis starts, or take it away. It is
+     * only in the way of sequences that start in front of it.
+     * @param isEnabled True to put the Charge Station on the field
+     */
+    public static void setSimStationEnabled(boolean isEnabled) {
+        mIsSimStationEnabled = isEnabled;
+    }
+
+    /**
+     * Step the simulated Charge Station one loop and find how the Chassis is tipped on it. The
+     * platform swings toward the side the Chassis is on, the further off center the further it
+     * swings, and lags behind as it moves. The physics model itself stays flat.
+     * @param position Where the Chassis is along the path, in inches
+     * @return Tilt of the Chassis in degrees, front up positive
+     */
+    private static double getSimStationPitch(double position) {
+        if(!mIsSimStationEnabled) return 0.0;
+
+        double offset = position - SIM_STATION_CENTER;
+        double halfPlatform = SIM_STATION_PLATFORM_LENGTH / 2.0;
+        boolean isOnPlatform = Math.abs(offset) <= halfPlatform;
+
+        //Weight behind the center tips the front up
+        double target = isOnPlatform ? MathUtil.clamp(-offset * SIM_STATION_DEGREES_PER_INCH, -SIM_STATION_MAX_ANGLE, SIM_STATION_MAX_ANGLE) : 0.0;
+        mSimStationAngle += (target - mSimStationAngle) * 0.02 / SIM_STATION_TIME_CONSTANT;
+
+        if(isOnPlatform) return mSimStationAngle;
+        if(Math.abs(offset) <= halfPlatform + SIM_STATION_RAMP_LENGTH) return -Math.signum(offset) * SIM_STATION_RAMP_ANGLE;
+        return 0.0;
+    }
+
+    /** Register dashboard entries with the telemetry scheduler. */
     public static void initDashboard() {
-        
+        Robot.schTelemetry.addDouble(entDrive_Distance::set, Chassis::getDistance, Rate.FAST, 0.05);
+        Robot.schTelemetry.addDouble(entDrive_Speed::set, Chassis::getSpeed, Rate.MEDIUM, 0.5);
+        Robot.schTelemetry.addDouble(entDrive_Angle::set, Chassis::getAngle, Rate.FAST, 0.1);
+        Robot.schTelemetry.addDouble(entDrive_Time_Remaining::set, Chassis::getDistanceTimeRemaining, Rate.MEDIUM, 0.05);
+        Robot.schTelemetry.addBoolean(entOn_Target_Distance::set, Chassis::isAtDistance, Rate.SLOW);
+        Robot.schTelemetry.addBoolean(entOn_Target_Angle::set, Chassis::isAtAngle, Rate.SLOW);
+        Robot.schTelemetry.addDouble(entDrive_Pitch::set, Chassis::getPitch, Rate.MEDIUM, 0.5);
+        Robot.schTelemetry.addBoolean(entBalanced::set, Chassis::isBalanced, Rate.SLOW);
+        Robot.schTelemetry.addDouble(entPose_X::set, () -> getPose().getX(), Rate.SLOW, 0.5);
+        Robot.schTelemetry.addDouble(entPose_Y::set, () -> getPose().getY(), Rate.SLOW, 0.5);
+        Robot.schTelemetry.addDouble(entPose_Heading::set, () -> getPose().getRotation().getDegrees(), Rate.SLOW, 0.5);
+
+        chsDistance_Control.addOption(DistanceControl.MOTION_MAGIC.label, DistanceControl.MOTION_MAGIC);
+        chsDistance_Control.setDefaultOption(DistanceControl.PROFILED.label, DistanceControl.PROFILED);
+
+        SmartDashboard.putData("Subsystem/Chassis/Distance Control", chsDistance_Control);
+    }
+
+    /** Create the Match Log channels. */
+    public static void initLog() {
+        logTimestamp = MatchLog.addInteger("Chassis/Timestamp");
+        logDistance_L = MatchLog.addDouble("Chassis/Distance L");
+        logDistance_R = MatchLog.addDouble("Chassis/Distance R");
+        logSpeed = MatchLog.addDouble("Chassis/Speed");
+        logAngle = MatchLog.addDouble("Chassis/Angle");
+        logPower_L = MatchLog.addDouble("Chassis/Power L");
+        logPower_R = MatchLog.addDouble("Chassis/Power R");
+        logDistance_Setpoint = MatchLog.addDouble("Chassis/Distance Setpoint");
+        logAngle_Setpoint = MatchLog.addDouble("Chassis/Angle Setpoint");
+        logDistance_Onboard = MatchLog.addBoolean("Chassis/Distance Onboard");
+        logPitch = MatchLog.addDouble("Chassis/Pitch");
+        logPitch_Rate = MatchLog.addDouble("Chassis/Pitch Rate");
+        logBalancing = MatchLog.addBoolean("Chassis/Balancing");
     }
 
-    /** Push new values to the dashboard options. */
-    public static void pushDashboardValues() {
-        //Update Dashboard Entries
-        entDrive_Distance.set(encDrive.getDistance());
-        entDrive_Speed.set(encDrive.getRate());
-        entDrive_Angle.set(gyrDrive.getAngle());
-        entOn_Target_Distance.set(isAtDistance());
-        entOn_Target_Angle.set(isAtAngle());
+    /** Record this loop's inputs and outputs to the Match Log. */
+    public static void pushLogValues() {
+        logTimestamp.append(mInputs.timestamp);
+        logDistance_L.append(mInputs.distance_L);
+        logDistance_R.append(mInputs.distance_R);
+        logSpeed.append(mInputs.speed);
+        logAngle.append(mInputs.angle);
+        logPower_L.append(mChassisPower_L);
+        logPower_R.append(mChassisPower_R);
+        logDistance_Setpoint.append(mDistanceSetpoint);
+        logAngle_Setpoint.append(mAngleSetpoint);
+        logDistance_Onboard.append(mIsDistanceOnboard);
+        logPitch.append(mInputs.pitch);
+        logPitch_Rate.append(mInputs.pitchRate);
+        logBalancing.append(pidDrive_Balance.isEnabled());
     }
 
-    /** Resetting the distance. */
+    /**
+     * Read both sides of the drive, the gyro, and the accelerometer, move the pose along, and
+     * publish the sample. Runs on the sensor sampler thread.
+     */
+    public static void sampleSensors() {
+        long timestamp = RobotController.getFPGATime();
+        double distance_L = encDrive_L.getDistance();
+        double distance_R = encDrive_R.getDistance();
+        double speed = (encDrive_L.getRate() + encDrive_R.getRate()) / 2.0;
+        ADXRS450_Gyro gyro = gyrDrive;
+        double angle = gyro != null ? gyro.getAngle() : 0.0;
+
+        //Take the Chassis speeding up out of the accelerometer, so only gravity is left to measure the tilt
+        double dt = (timestamp - mLastSampleTime) / 1.0e6;
+        double acceleration = mLastSampleTime > 0 && dt > 0.0 ? (speed - mLastSampleSpeed) / dt : 0.0;
+        double pitch = fltPitch.calculate(Math.toDegrees(Math.atan2(accDrive.getX() - acceleration / GRAVITY, accDrive.getZ())));
+        double pitchRate = fltPitch_Rate.calculate(dt > 0.0 ? (pitch - mLastSamplePitch) / dt : 0.0);
+        mLastSampleTime = timestamp;
+        mLastSampleSpeed = speed;
+        mLastSamplePitch = pitch;
+
+        synchronized(mOdometryLock){
+            mOdometryDistance_L = distance_L;
+            mOdometryDistance_R = distance_R;
+            mOdometryAngle = angle;
+
+            //The gyro reads clockwise positive
+            mPose = odoDrive.update(Rotation2d.fromDegrees(-angle), distance_L, distance_R);
+        }
+
+        mSampleLock.beginWrite();
+        mSample.timestamp = timestamp;
+        mSample.distance_L = distance_L;
+        mSample.distance_R = distance_R;
+        mSample.speed = speed;
+        mSample.angle = angle;
+        mSample.pitch = pitch;
+        mSample.pitchRate = pitchRate;
+        mSampleLock.endWrite();
+    }
+
+    /**
+     * Replace this loop's inputs with recorded values, instead of copying the latest sample.
+     * Used to replay a match log.
+     * @param timestamp Time the values were sampled, in microseconds
+     * @param distance_L Left encoder reading in inches
+     * @param distance_R Right encoder reading in inches
+     * @param speed Average speed in inches per second
+     * @param angle Gyro reading in degrees
+     * @param pitch Filtered tilt in degrees
+     * @param pitchRate Filtered tilt rate in degrees per second
+     */
+    public static void injectInputs(long timestamp, double distance_L, double distance_R, double speed, double angle, double pitch, double pitchRate) {
+        mInputs.timestamp = timestamp;
+        mInputs.distance_L = distance_L;
+        mInputs.distance_R = distance_R;
+        mInputs.speed = speed;
+        mInputs.angle = angle;
+        mInputs.pitch = pitch;
+        mInputs.pitchRate = pitchRate;
+    }
+
+    /**
+     * Copy the latest Chassis sample. Everything else reads these values for the rest of the loop,
+     * so control, safety, and the dashboard all see the same reading.
+     */
+    public static void updateInputs() {
+        long version;
+        do{
+            version = mSampleLock.beginRead();
+            mInputs.timestamp = mSample.timestamp;
+            mInputs.distance_L = mSample.distance_L;
+            mInputs.distance_R = mSample.distance_R;
+            mInputs.speed = mSample.speed;
+            mInputs.angle = mSample.angle;
+            mInputs.pitch = mSample.pitch;
+            mInputs.pitchRate = mSample.pitchRate;
+        } while(mSampleLock.retry(version));
+
+        //Only worth reading while the Falcons are running the distance
+        if(mIsDistanceOnboard){
+            mInputs.error_L = mtrDrive_L1.getClosedLoopError();
+            mInputs.error_R = mtrDrive_R1.getClosedLoopError();
+            mInputs.trajectory_L = mtrDrive_L1.getActiveTrajectoryPosition();
+            mInputs.trajectory_R = mtrDrive_R1.getActiveTrajectoryPosition();
+        }
+    }
+
+    /**
+     * Time the sensors were sampled at the start of the loop.
+     * @return Timestamp in seconds.
+     */
+    private static double getTimestamp(){
+        return mInputs.timestamp / 1.0e6;
+    }
+
+    /**
+     * Read where the Chassis is on the field, as of the last sample.
+     * @return Pose in inches, counter-clockwise positive.
+     */
+    public static Pose2d getPose(){
+        return mPose;
+    }
+
+    /**
+     * Tell the odometry where the Chassis is on the field.
+     * @param pose Pose in inches, counter-clockwise positive.
+     */
+    public static void resetPose(Pose2d pose){
+        synchronized(mOdometryLock){
+            odoDrive.resetPosition(Rotation2d.fromDegrees(-mOdometryAngle), mOdometryDistance_L, mOdometryDistance_R, pose);
+            mPose = pose;
+        }
+    }
+
+    /** Resetting the distance. The encoders keep counting, so the odometry is not disturbed. */
     public static void resetDistance(){
-        encDrive.reset();
+        mDistanceOffset_L = mInputs.distance_L;
+        mDistanceOffset_R = mInputs.distance_R;
     }
     
     /**
-     * Reading from the encoder.
-     * @return Distance is given in inches.
+     * Reading from the encoders, as sampled at the start of the loop.
+     * @return Distance is given in inches, the average of both sides.
      */
     public static double getDistance(){
-        return encDrive.getDistance();
+        return ((mInputs.distance_L - mDistanceOffset_L) + (mInputs.distance_R - mDistanceOffset_R)) / 2.0;
     }
 
     /**
-     * Reading from the encoder.
+     * Reading from the encoder, as sampled at the start of the loop.
      * @return Speed is given in inches per second.
      */
     public static double getSpeed(){
-        return encDrive.getRate();
+        return mInputs.speed;
     }
 
-    /** Resetting the angle. */
+    /** Resetting the angle. The gyro keeps counting, so the odometry is not disturbed. */
     public static void resetAngle(){
-        gyrDrive.reset();
+        mAngleOffset = mInputs.angle;
     }
 
     /**
-     * Reading from the encoder.
+     * Reading from the gyro, as sampled at the start of the loop.
      * @return Angle is given in degree.
      */
     public static double getAngle() {
-        return gyrDrive.getAngle();
+        return mInputs.angle - mAngleOffset;
+    }
+
+    /**
+     * Reading from the accelerometer, as sampled at the start of the loop.
+     * @return Tilt is given in degrees, front up positive.
+     */
+    public static double getPitch() {
+        return mInputs.pitch;
+    }
+
+    /**
+     * Reading from the accelerometer, as sampled at the start of the loop.
+     * @return Tilt rate is given in degrees per second.
+     */
+    public static double getPitchRate() {
+        return mInputs.pitchRate;
     }
 
     /**
@@ -162,10 +645,10 @@ public class Chassis {
      * @param mode Mode to set the motors to.
      */
     public static void setDriveNeutralMode (NeutralMode mode){
-        mtrDrive_L1.setNeutralMode(mode);
-        mtrDrive_L2.setNeutralMode(mode);
-        mtrDrive_R1.setNeutralMode(mode);
-        mtrDrive_R2.setNeutralMode(mode);
+        mtrDrive_L1.setNeutralMode(mode, mInputs.timestamp);
+        mtrDrive_L2.setNeutralMode(mode, mInputs.timestamp);
+        mtrDrive_R1.setNeutralMode(mode, mInputs.timestamp);
+        mtrDrive_R2.setNeutralMode(mode, mInputs.timestamp);
     }
 
     /**
@@ -173,10 +656,10 @@ public class Chassis {
      * @param mode Mode to set the motors to.
      */
     public static void setDriveNeutralMode (NeutralMode modeFront, NeutralMode modeBack){
-        mtrDrive_L1.setNeutralMode(modeFront);
-        mtrDrive_L2.setNeutralMode(modeBack);
-        mtrDrive_R1.setNeutralMode(modeFront);
-        mtrDrive_R2.setNeutralMode(modeBack);
+        mtrDrive_L1.setNeutralMode(modeFront, mInputs.timestamp);
+        mtrDrive_L2.setNeutralMode(modeBack, mInputs.timestamp);
+        mtrDrive_R1.setNeutralMode(modeFront, mInputs.timestamp);
+        mtrDrive_R2.setNeutralMode(modeBack, mInputs.timestamp);
     }
 
     /**
@@ -191,28 +674,100 @@ public class Chassis {
 
 
 
+    /**
+     * Read the power commanded to the left side of the chassis.
+     * @return [-1.0, 1.0] Power to the left side of the chassis.
+     */
+    public static double getDrivePower_L(){
+        return mChassisPower_L;
+    }
+
+    /**
+     * Read the power commanded to the right side of the chassis.
+     * @return [-1.0, 1.0] Power to the right side of the chassis.
+     */
+    public static double getDrivePower_R(){
+        return mChassisPower_R;
+    }
+
     /** Drive power is disabled.  */
     public static void disableDrive() {
         setDrive(0.0, 0.0);
     }
 
     /**
-     * PID control for the Drive Distance of the Chassis.
+     * Motion profiled control for the Drive Distance of the Chassis. The Chassis speeds up,
+     * cruises, and slows down to stop on the target. Runs wherever the dashboard selects.
      * @param distance Target distance to drive. 
      */
     public static void goToDistance(double distance){
+        DistanceControl control = chsDistance_Control.getSelected();
+        goToDistance(distance, control != null ? control : DistanceControl.PROFILED);
+    }
+
+    /**
+     * Motion profiled control for the Drive Distance of the Chassis. The Chassis speeds up,
+     * cruises, and slows down to stop on the target.
+     * @param distance Target distance to drive. 
+     * @param control Where to run the control.
+     */
+    public static void goToDistance(double distance, DistanceControl control){
         disableAnglePID();
+        disableDistancePID();
+        disableBalancePID();
         resetDistance();
-        pidDrive_Distance.setSetpoint(distance);
-        pidDrive_Distance.enable();
+
+        //Also kept for Motion Magic, where it predicts the time remaining
+        prfDrive_Distance = new TrapezoidProfile(DRIVE_CONSTRAINTS, new TrapezoidProfile.State(distance, 0.0), new TrapezoidProfile.State(0.0, getSpeed()));
+        mProfileStartTime = getTimestamp();
+        mProfileLastTime = 0.0;
+        mProfileLastSpeed = getSpeed();
+        mHeadingTarget = getAngle();
+
+        switch(control){
+            case MOTION_MAGIC:
+                //The Falcons count from where the encoders were last reset, not from the distance offset
+                mDistanceTarget_L = (mDistanceOffset_L + distance) / DRIVE_INCHES_PER_PULSE;
+                mDistanceTarget_R = (mDistanceOffset_R + distance) / DRIVE_INCHES_PER_PULSE;
+                mInputs.error_L = mInputs.error_R = distance / DRIVE_INCHES_PER_PULSE;
+                mInputs.trajectory_L = mDistanceOffset_L / DRIVE_INCHES_PER_PULSE;
+                mInputs.trajectory_R = mDistanceOffset_R / DRIVE_INCHES_PER_PULSE;
+                mIsDistanceOnboard = true;
+                break;
+            default:
+                pidDrive_Distance.setSetpoint(0.0);
+                pidDrive_Distance.enable();
+        }
     }
 
     /**
      * Read whatever or not the Drive Distance PID reached its distance. 
-     * @return Target distance is reached. 
+     * @return Target distance is reached, and the profile has finished. 
      */
     public static boolean isAtDistance(){
-        return pidDrive_Distance.atSetpoint();
+        if(mIsDistanceOnboard)
+            return Math.abs(mInputs.trajectory_L - mDistanceTarget_L) < 1.0 && Math.abs(mInputs.trajectory_R - mDistanceTarget_R) < 1.0
+                && Math.abs(mInputs.error_L) <= DRIVE_TALON_TOLERANCE && Math.abs(mInputs.error_R) <= DRIVE_TALON_TOLERANCE;
+
+        return prfDrive_Distance.isFinished(getTimestamp() - mProfileStartTime) && pidDrive_Distance.atSetpoint();
+    }
+
+    /**
+     * Read how long the current drive distance profile has left to run.
+     * @return Time remaining in seconds, zero when not driving a distance.
+     */
+    public static double getDistanceTimeRemaining(){
+        if(!pidDrive_Distance.isEnabled() && !mIsDistanceOnboard) return 0.0;
+        return Math.max(0.0, prfDrive_Distance.totalTime() - (getTimestamp() - mProfileStartTime));
+    }
+
+    /**
+     * Predict how long a drive distance from a stop would take, so sequences can plan around it.
+     * @param distance Distance to drive.
+     * @return Time in seconds.
+     */
+    public static double predictDistanceTime(double distance){
+        return new TrapezoidProfile(DRIVE_CONSTRAINTS, new TrapezoidProfile.State(distance, 0.0), new TrapezoidProfile.State()).totalTime();
     }
 
     /**
@@ -220,6 +775,7 @@ public class Chassis {
      */
     public static void disableDistancePID(){
         pidDrive_Distance.disable();
+        mIsDistanceOnboard = false;
     }
 
     /**
@@ -228,8 +784,10 @@ public class Chassis {
      */
     public static void goToAngle(double angle){
         disableDistancePID();
+        disableBalancePID();
         resetAngle();
         pidDrive_Angle.setSetpoint(angle);
+        mAngleSetpoint = angle;
         pidDrive_Angle.enable();
     }
 
@@ -248,12 +806,49 @@ public class Chassis {
         pidDrive_Angle.disable();
     }
 
+    /**
+     * Balance the Chassis on the Charge Station, driving toward whichever side is down until the
+     * platform levels out, then holding there in brake mode. Keeps holding until something else
+     * takes over the Chassis.
+     */
+    public static void balance(){
+        disableDistancePID();
+        disableAnglePID();
+        setDriveNeutralMode(NeutralMode.Brake);
+        pidDrive_Balance.setSetpoint(0.0);
+        pidDrive_Balance.enable();
+    }
+
+    /**
+     * Read whether the Chassis is balancing on the Charge Station.
+     * @return True while the balance PID is enabled
+     */
+    public static boolean isBalancing(){
+        return pidDrive_Balance.isEnabled();
+    }
+
+    /**
+     * Read whatever or not the Chassis is balanced.
+     * @return Balancing, and the platform has stayed level.
+     */
+    public static boolean isBalanced(){
+        return pidDrive_Balance.isEnabled() && pidDrive_Balance.atSetpoint();
+    }
+
+    /**
+     * Balance PID is disabled.
+     */
+    public static void disableBalancePID(){
+        pidDrive_Balance.disable();
+    }
+
     /**
      * PIDs on the chassis are disabled. 
      */
     public static void disablePIDs(){
         disableDistancePID();
         disableAnglePID();
+        disableBalancePID();
     }
 
     /**
@@ -264,21 +859,65 @@ public class Chassis {
         disableDrive();
     }
 
+    /**
+     * Run one step of a profiled drive distance and set the Drive power from it: sample the
+     * profile, add the feedforward and PID, and steer back to the starting heading.
+     * @param time Time since the profile started, in seconds
+     * @param distance Distance driven since the profile started, in inches
+     * @param angle Heading, in degrees
+     */
+    static void calculateProfiledPower(double time, double distance, double angle) {
+        TrapezoidProfile.State target = prfDrive_Distance.calculate(time);
+        double acceleration = time > mProfileLastTime ? (target.velocity - mProfileLastSpeed) / (time - mProfileLastTime) : 0.0;
+        mProfileLastTime = time;
+        mProfileLastSpeed = target.velocity;
+
+        mDistanceSetpoint = target.position;
+        pidDrive_Distance.setSetpoint(mDistanceSetpoint);
+        double power = MathUtil.clamp(ffDrive.calculate(target.velocity, acceleration) + pidDrive_Distance.calculate(distance), -1.0, 1.0);
+
+        //Steer back to the heading the leg started on, clockwise drift needs the left side slowed
+        double correction = DRIVE_HEADING_kP * (angle - mHeadingTarget);
+        setDrive(power - correction, power + correction);
+    }
+
     /**
      * Systems and components are updated. 
      */
     public static void periodic() {
+        LoopProfiler.start(Phase.CHASSIS);
+
         //PID Override
         if(pidDrive_Distance.isEnabled()){
-            setDrive(pidDrive_Distance.calculate(getDistance()), pidDrive_Distance.calculate(getDistance()));
+            calculateProfiledPower(getTimestamp() - mProfileStartTime, getDistance(), getAngle());
         } else if(pidDrive_Angle.isEnabled()){
-            setDrive(pidDrive_Angle.calculate(getAngle()), -pidDrive_Angle.calculate(getAngle()));
+            double power = pidDrive_Angle.calculate(getAngle());
+            setDrive(power, -power);
+        } else if(pidDrive_Balance.isEnabled()){
+            //Front up means the Chassis is past center, so it drives forward
+            double power = -pidDrive_Balance.calculate(getPitch());
+
+            //Stop while level or while the platform is already swinging back, brake mode holds the Chassis
+            boolean isTipping = getPitch() * getPitchRate() < 0.0 && Math.abs(getPitchRate()) > BALANCE_TIPPING_RATE;
+            if(Math.abs(getPitch()) <= BALANCE_TOLERANCE || isTipping) power = 0.0;
+            setDrive(power, power);
         }
         
-        //Update components
-        mtrDrive_L1.set(ControlMode.PercentOutput, mChassisPower_L);
-        mtrDrive_L2.set(ControlMode.PercentOutput, mChassisPower_L);
-        mtrDrive_R1.set(ControlMode.PercentOutput, mChassisPower_R);
-        mtrDrive_R2.set(ControlMode.PercentOutput, mChassisPower_R);
+        //A Falcon that reset has lost its neutral mode
+        mtrDrive_L1.checkReset(mInputs.timestamp);
+        mtrDrive_L2.checkReset(mInputs.timestamp);
+        mtrDrive_R1.checkReset(mInputs.timestamp);
+        mtrDrive_R2.checkReset(mInputs.timestamp);
+
+        //Update components, L2 and R2 are already following
+        if(mIsDistanceOnboard){
+            mtrDrive_L1.set(ControlMode.MotionMagic, mDistanceTarget_L, mInputs.timestamp);
+            mtrDrive_R1.set(ControlMode.MotionMagic, mDistanceTarget_R, mInputs.timestamp);
+        } else {
+            mtrDrive_L1.set(ControlMode.PercentOutput, mChassisPower_L, mInputs.timestamp);
+            mtrDrive_R1.set(ControlMode.PercentOutput, mChassisPower_R, mInputs.timestamp);
+        }
+
+        LoopProfiler.stop(Phase.CHASSIS);
     }
 }
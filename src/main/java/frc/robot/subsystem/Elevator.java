@@ -1,16 +1,37 @@
 package frc.robot.subsystem;
 
+import com.ctre.phoenix.ErrorCode;
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
-import com.ctre.phoenix.motorcontrol.can.WPI_TalonFX;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.can.TalonFXSimCollection;
 
 import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.ElevatorFeedforward;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Threads;
+import edu.wpi.first.wpilibj.simulation.DIOSim;
+import edu.wpi.first.wpilibj.simulation.ElevatorSim;
 import frc.molib.PIDController;
 import frc.molib.dashboard.Entry;
 import frc.molib.sensors.DigitalInput;
 import frc.molib.sensors.MagEncoder;
 import frc.robot.Robot;
+import frc.robot.utilities.AsyncLogger;
+import frc.robot.utilities.CachedTalonFX;
+import frc.robot.utilities.LoopProfiler;
+import frc.robot.utilities.LoopProfiler.Phase;
+import frc.robot.utilities.MatchLog;
+import frc.robot.utilities.RecordQueue;
+import frc.robot.utilities.SensorSampler;
+import frc.robot.utilities.SeqLock;
+import frc.robot.utilities.TelemetryScheduler.Rate;
 
 
  /**
@@ -18,6 +39,12 @@ import frc.robot.Robot;
  * <p>
  * Sets up elevator motor, elevator PIDs, and elevator sensors.
  * Components relating to elevator, raising and lowering of elevator.
+ * <p>
+ * The Lift is controlled by its own loop at 200 Hz, on a real-time Notifier. It samples the
+ * sensors, runs the profile, PID, and photoeye checks, and writes the motor, so the Lift stops
+ * within 5 ms instead of 20 ms. The robot loop hands it a command each loop and reads back its
+ * status, both through a {@link SeqLock}, so neither side ever waits on the other. Every run of
+ * the control loop is recorded to the Match Log, with what it ran on, so it can be replayed exactly.
  * @author Tavares Mance
  */
  public class Elevator {
@@ -36,7 +63,73 @@ import frc.robot.Robot;
             height = position;
         }
     }
+
+    /**
+     * Whether the Lift height has been zeroed yet. The Lift is zeroed the first time the bottom
+     * photoeye trips, and is homed once the Falcon has taken its soft limits, then stays homed.
+     */
+    public enum HomeState {
+        UNHOMED("Unhomed"),
+        ZEROED("Zeroed"),
+        HOMED("Homed");
+
+        public final String label;
+        private HomeState(String label) {
+            this.label = label;
+        }
+
+        @Override public String toString() {
+            return label;
+        }
+    }
     
+    //Lift constants
+    private static final double LIFT_GEAR_RATIO = 16.0;
+    private static final double LIFT_SPOOL_DIAMETER = 1.800;
+    private static final double LIFT_STAGE_RATIO = 2.0;
+    private static final double LIFT_CORRECTION = 53.875 / 54.9;
+    private static final double LIFT_INCHES_PER_PULSE = ((1.0 / 2048.0) / LIFT_GEAR_RATIO) * (LIFT_SPOOL_DIAMETER * Math.PI) * LIFT_STAGE_RATIO * LIFT_CORRECTION;
+
+    /** Time between runs of the Lift control loop, in seconds. */
+    public static final double CONTROL_PERIOD = 0.005;
+    //Real-time priority of the control loop thread
+    private static final int CONTROL_PRIORITY = 40;
+
+    /** Fields of each control loop run, as recorded to the Match Log under "Elevator/Control Run". */
+    public static final int RUN_TIMESTAMP = 0;
+    public static final int RUN_HEIGHT = 1;
+    public static final int RUN_SPEED = 2;
+    public static final int RUN_BOTTOM = 3;
+    public static final int RUN_TOP = 4;
+    public static final int RUN_HEIGHT_CONTROL = 5;
+    public static final int RUN_COMMAND_HEIGHT = 6;
+    public static final int RUN_COMMAND_POWER = 7;
+    public static final int RUN_COMMAND_ID = 8;
+    public static final int RUN_ACTIVE_ID = 9;
+    public static final int RUN_HOMED = 10;
+    public static final int RUN_WAS_AT_BOTTOM = 11;
+    public static final int RUN_POWER = 12;
+    public static final int RUN_WIDTH = 13;
+    //Runs held for the robot loop to log, about 13 loops worth
+    private static final int RUN_CAPACITY = 64;
+
+    //Lift soft limits, from where the bottom photoeye trips. Reverse is past the hard stop, so the Lift can still reach the photoeye
+    private static final double LIFT_MIN_HEIGHT = -0.5;
+    private static final double LIFT_MAX_HEIGHT = 55.0;
+
+    //Lift profile constants, in percent output. The carriage tops out around 73.7 in/s at full power
+    private static final double LIFT_MAX_SPEED = 55.0;
+    private static final double LIFT_MAX_ACCELERATION = 150.0;
+    private static final double LIFT_kS = 0.02;
+    private static final double LIFT_kG = 0.05;
+    private static final double LIFT_kV = 1.0 / 73.7;
+    private static final double LIFT_kA = 0.001;
+
+    //Simulated travel and photoeye trip points
+    private static final double SIM_LIFT_MAX_HEIGHT = 56.0;
+    private static final double SIM_LIFT_BOTTOM_TRIP = 0.25;
+    private static final double SIM_LIFT_TOP_TRIP = 55.5;
+
     // Network Table is the communication between the robot and the driver station. 
     
     private static NetworkTable tblElevator = Robot.tblSubsystem.getSubTable("Elevator");
@@ -46,13 +139,36 @@ import frc.robot.Robot;
     private static Entry<Boolean> entLift_Bottom = new Entry<Boolean>(tblElevator, "Lift Bottom");
     private static Entry<Boolean> entLift_Top = new Entry<Boolean>(tblElevator, "Lift Top");
     private static Entry<Boolean> entOnTarget = new Entry<Boolean>(tblElevator, "On Target");
+    private static Entry<Double> entSettle_Time = new Entry<Double>(tblElevator, "Settle Time");
+    private static Entry<Boolean> entLift_Homed = new Entry<Boolean>(tblElevator, "Lift Homed");
+
+    //Match Log Channels, created by initLog()
+    private static MatchLog.IntegerChannel logTimestamp;
+    private static MatchLog.DoubleChannel logHeight;
+    private static MatchLog.DoubleChannel logSpeed;
+    private static MatchLog.BooleanChannel logBottom;
+    private static MatchLog.BooleanChannel logTop;
+    private static MatchLog.DoubleChannel logPower;
+    private static MatchLog.DoubleChannel logHeight_Setpoint;
+    private static MatchLog.BooleanChannel logHomed;
+    private static MatchLog.IntegerChannel logStatus_Timestamp;
+    private static MatchLog.BooleanChannel logCommand_HeightControl;
+    private static MatchLog.DoubleChannel logCommand_Height;
+    private static MatchLog.DoubleChannel logCommand_Power;
+    private static MatchLog.IntegerChannel logCommand_Id;
+    private static MatchLog.RecordChannel logControl_Run;
+    private static MatchLog.IntegerChannel logControl_Dropped;
 
     //Create the Falcons, PID, and Encoder for the Elevator.
     
-    private static WPI_TalonFX mtrLift = new WPI_TalonFX(6);
+    private static CachedTalonFX mtrLift = new CachedTalonFX(6);
 
-    //FIXME: MAKE THIS PRIVATE
-    public static PIDController pidLift_Height = new PIDController(0.25, 0.00, 0.00);
+    private static PIDController pidLift_Height = new PIDController(0.25, 0.00, 0.00);
+
+    //The PID only corrects for error from the profile, the feedforward holds the carriage up and moves it
+    private static final TrapezoidProfile.Constraints LIFT_CONSTRAINTS = new TrapezoidProfile.Constraints(LIFT_MAX_SPEED, LIFT_MAX_ACCELERATION);
+    private static ElevatorFeedforward ffLift = new ElevatorFeedforward(LIFT_kS, LIFT_kG, LIFT_kV, LIFT_kA);
+    private static TrapezoidProfile prfLift_Height = new TrapezoidProfile(LIFT_CONSTRAINTS, new TrapezoidProfile.State());
 
     private static MagEncoder encLift = new MagEncoder(mtrLift);
 
@@ -60,8 +176,77 @@ import frc.robot.Robot;
     private static final DigitalInput phoLift_U = new DigitalInput(1, false);    
     
 
-    //Create buffer variables
+    /** Sensor values, copied from the latest sample once at the start of each loop. */
+    private static final class Inputs {
+        private long timestamp = 0;
+        private double height = 0.0;
+        private double speed = 0.0;
+        private boolean isAtBottom = false;
+        private boolean isAtTop = false;
+    }
+
+    /** What the robot loop wants from the Lift, handed to the control loop once per loop. */
+    private static final class Command {
+        private boolean isHeightControl = false;
+        private double height = 0.0;
+        private double power = 0.0;
+        private int id = 0;
+    }
+
+    /** What the control loop last did, handed back to the robot loop. */
+    private static final class Status {
+        private long timestamp = 0;
+        private int commandId = 0;
+        private double power = 0.0;
+        private double heightSetpoint = 0.0;
+        private boolean isAtHeight = false;
+        private double settleTime = 0.0;
+        private int settleCount = 0;
+        private HomeState homeState = HomeState.UNHOMED;
+    }
+
+    //Create buffer variables, for the robot loop
+    private static final Inputs mInputs = new Inputs();
+    private static final Command mCommand = new Command();
+    private static final Status mStatus = new Status();
+    private static int mLoggedSettleCount = 0;
+    private static boolean mWasHomed = false;
+    private static final double[] mLoggedRun = new double[RUN_WIDTH];
+
+    //Handoff between the robot loop and the control loop
+    private static final Inputs mSample = new Inputs();
+    private static final SeqLock mSampleLock = new SeqLock();
+    private static final Command mCommandShared = new Command();
+    private static final SeqLock mCommandLock = new SeqLock();
+    private static final Status mStatusShared = new Status();
+    private static final SeqLock mStatusLock = new SeqLock();
+    private static final RecordQueue mRuns = new RecordQueue(RUN_WIDTH, RUN_CAPACITY);
+
+    //Control loop, and buffer variables only it touches
+    private static final Notifier ntfControl = new Notifier(Elevator::runControlLoop);
+    private static volatile boolean mIsControlRunning = false;
+    private static boolean mIsPriorityRaised = false;
+    private static final Inputs mControlInputs = new Inputs();
+    private static final Command mControlCommand = new Command();
+    private static final double[] mRun = new double[RUN_WIDTH];
+    private static int mActiveCommandId = 0;
     private static double mLiftPower = 0.0; 
+    private static double mProfileStartTime = 0.0;
+    private static double mProfileLastTime = 0.0;
+    private static double mProfileLastSpeed = 0.0;
+    private static boolean mIsSettling = false;
+    private static double mSettleTime = 0.0;
+    private static int mSettleCount = 0;
+    private static double mHeightSetpoint = 0.0;
+    private static HomeState mHomeState = HomeState.UNHOMED;
+    private static boolean mWasAtBottom = false;
+    private static double mHeightOffset = 0.0;
+
+    //Simulation models, only created when running on the desktop. The lift model is set last, so the control loop sees the rest once it sees it
+    private static volatile ElevatorSim simLift;
+    private static TalonFXSimCollection simLift_Motor;
+    private static DIOSim simLift_L;
+    private static DIOSim simLift_U;
 
     /**
      * Constructor: Private so that it cannot instantiate.
@@ -77,13 +262,18 @@ import frc.robot.Robot;
         mtrLift.setInverted(false); 
         mtrLift.setNeutralMode(NeutralMode.Brake);
 
-        mtrLift.configReverseSoftLimitThreshold(0.0);
-        mtrLift.configForwardSoftLimitThreshold(0.0);
+        //Soft limits are only turned on once the Lift has homed, until then the encoder could read anything
+        mtrLift.configReverseSoftLimitThreshold(LIFT_MIN_HEIGHT / LIFT_INCHES_PER_PULSE);
+        mtrLift.configForwardSoftLimitThreshold(LIFT_MAX_HEIGHT / LIFT_INCHES_PER_PULSE);
         mtrLift.configReverseSoftLimitEnable(false);
         mtrLift.configForwardSoftLimitEnable(false);
+        mHomeState = HomeState.UNHOMED;
+        mWasAtBottom = false;
+        mHeightOffset = 0.0;
         
         //Configure Sensors
-        encLift.configDistancePerPulse(((1.0 / 2048.0) / 16.0) * (1.800 * Math.PI) * 2.0 * (53.875 / 54.9));
+        encLift.configDistancePerPulse(LIFT_INCHES_PER_PULSE);
+        mtrLift.setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, SensorSampler.STATUS_FRAME_PERIOD, 30);
 
         //Configure PIDS
         pidLift_Height.setTolerance(0.125);
@@ -91,57 +281,408 @@ import frc.robot.Robot;
         pidLift_Height.configOutputRange(-0.60, 0.75);
     }
 
-    // Initializing dashboard options. 
+    /**
+     * Start the Lift control loop. Until it is started the Lift is not controlled, log replay
+     * runs the control itself, through {@link #replayRun(double[])}. Calling it again does nothing.
+     */
+    public static synchronized void startControlLoop() {
+        if(mIsControlRunning) return;
+
+        publishCommand();
+        ntfControl.setName("Elevator Control");
+        ntfControl.startPeriodic(CONTROL_PERIOD);
+        mIsControlRunning = true;
+    }
+
+    /**
+     * Sets up the lift physics model. Calling it again drops the simulated carriage back
+     * to the bottom.
+     */
+    public static void simulationInit() {
+        simLift_Motor = mtrLift.getSimCollection();
+        simLift_L = new DIOSim(0);
+        simLift_U = new DIOSim(1);
+
+        //The cascade doubles carriage travel, which the model sees as a spool twice as large
+        simLift = new ElevatorSim(
+            DCMotor.getFalcon500(1),
+            LIFT_GEAR_RATIO,
+            Units.lbsToKilograms(15.0),
+            Units.inchesToMeters(LIFT_SPOOL_DIAMETER / 2.0 * LIFT_STAGE_RATIO * LIFT_CORRECTION),
+            0.0,
+            Units.inchesToMeters(SIM_LIFT_MAX_HEIGHT),
+            true);
+    }
+
+    /**
+     * Steps the lift physics model and feeds the results back into the simulated Falcon sensor
+     * and photoeyes. Runs on the control loop, so the model moves at the same rate it is controlled.
+     * @param period Time to step in seconds
+     */
+    private static void simulationStep(double period) {
+        ElevatorSim lift = simLift;
+        if(lift == null) return;
+
+        simLift_Motor.setBusVoltage(RobotController.getBatteryVoltage());
+
+        lift.setInput(simLift_Motor.getMotorOutputLeadVoltage());
+        lift.update(period);
+
+        double height = Units.metersToInches(lift.getPositionMeters());
+        double speed = Units.metersToInches(lift.getVelocityMetersPerSecond());
+
+        simLift_Motor.setIntegratedSensorRawPosition((int)(height / LIFT_INCHES_PER_PULSE));
+        simLift_Motor.setIntegratedSensorVelocity((int)(speed / LIFT_INCHES_PER_PULSE / 10.0));
+        simLift_L.setValue(height <= SIM_LIFT_BOTTOM_TRIP);
+        simLift_U.setValue(height >= SIM_LIFT_TOP_TRIP);
+    }
+
+    /** Register dashboard entries with the telemetry scheduler. */
     public static void initDashboard() {
-    
+        Robot.schTelemetry.addDouble(entLift_Height::set, Elevator::getLiftHeight, Rate.FAST, 0.05);
+        Robot.schTelemetry.addBoolean(entLift_Bottom::set, Elevator::isLiftAtBottom, Rate.MEDIUM);
+        Robot.schTelemetry.addBoolean(entLift_Top::set, Elevator::isLiftAtTop, Rate.MEDIUM);
+        Robot.schTelemetry.addBoolean(entOnTarget::set, Elevator::isAtHeight, Rate.SLOW);
+        Robot.schTelemetry.addDouble(entSettle_Time::set, Elevator::getSettleTime, Rate.SLOW, 0.005);
+        Robot.schTelemetry.addBoolean(entLift_Homed::set, Elevator::isLiftHomed, Rate.SLOW);
     }
 
-    /**Push new values to dashboard objects.*/
-    public static void pushDashboardValues(){
-        //Push Sensor Values.
-        entLift_Height.set(getLiftHeight());
-        entLift_Bottom.set(isLiftAtBottom());
-        entLift_Top.set(isLiftAtTop());
-        entOnTarget.set(isAtHeight());
+    /** Create the Match Log channels. */
+    public static void initLog() {
+        logTimestamp = MatchLog.addInteger("Elevator/Timestamp");
+        logHeight = MatchLog.addDouble("Elevator/Height");
+        logSpeed = MatchLog.addDouble("Elevator/Speed");
+        logBottom = MatchLog.addBoolean("Elevator/Bottom");
+        logTop = MatchLog.addBoolean("Elevator/Top");
+        logPower = MatchLog.addDouble("Elevator/Power");
+        logHeight_Setpoint = MatchLog.addDouble("Elevator/Height Setpoint");
+        logHomed = MatchLog.addBoolean("Elevator/Homed");
+        logStatus_Timestamp = MatchLog.addInteger("Elevator/Status Timestamp");
+        logCommand_HeightControl = MatchLog.addBoolean("Elevator/Command Height Control");
+        logCommand_Height = MatchLog.addDouble("Elevator/Command Height");
+        logCommand_Power = MatchLog.addDouble("Elevator/Command Power");
+        logCommand_Id = MatchLog.addInteger("Elevator/Command Id");
+        logControl_Run = MatchLog.addRecord("Elevator/Control Run");
+        logControl_Dropped = MatchLog.addInteger("Elevator/Control Runs Dropped");
     }
 
-    /** Reset Lift encoder distance.*/
-    public static void resetLiftHeight() {encLift.reset(); }
+    /**
+     * Record this loop's inputs, the command it handed the control loop, and which control loop run
+     * its status came from to the Match Log. Then record every control loop run since last loop, and
+     * how many runs have been dropped because the queue was full.
+     */
+    public static void pushLogValues() {
+        logTimestamp.append(mInputs.timestamp);
+        logHeight.append(mInputs.height);
+        logSpeed.append(mInputs.speed);
+        logBottom.append(mInputs.isAtBottom);
+        logTop.append(mInputs.isAtTop);
+        logPower.append(mStatus.power);
+        logHeight_Setpoint.append(mStatus.heightSetpoint);
+        logHomed.append(mStatus.homeState == HomeState.HOMED);
+        logStatus_Timestamp.append(mStatus.timestamp);
+        logCommand_HeightControl.append(mCommand.isHeightControl);
+        logCommand_Height.append(mCommand.height);
+        logCommand_Power.append(mCommand.power);
+        logCommand_Id.append(mCommand.id);
+
+        //Empty the queue even when not recording, so it never fills
+        while(mRuns.poll(mLoggedRun))
+            logControl_Run.append(mLoggedRun);
+        logControl_Dropped.append(mRuns.getDropped());
+    }
+
+    /**
+     * Read the lift encoder and photoeyes for the control loop, and publish the sample for the
+     * robot loop. Runs on the control loop.
+     * @param inputs Control loop inputs to fill
+     */
+    private static void sampleSensors(Inputs inputs) {
+        inputs.timestamp = RobotController.getFPGATime();
+        inputs.height = encLift.getDistance() - mHeightOffset;
+        inputs.speed = encLift.getRate();
+        inputs.isAtBottom = phoLift_L.get();
+        inputs.isAtTop = phoLift_U.get();
+        publishSample(inputs);
+    }
+
+    /**
+     * Hand a sample to the robot loop. Runs on the control loop.
+     * @param inputs Control loop inputs to publish
+     */
+    private static void publishSample(Inputs inputs) {
+        mSampleLock.beginWrite();
+        mSample.timestamp = inputs.timestamp;
+        mSample.height = inputs.height;
+        mSample.speed = inputs.speed;
+        mSample.isAtBottom = inputs.isAtBottom;
+        mSample.isAtTop = inputs.isAtTop;
+        mSampleLock.endWrite();
+    }
+
+    /** Hand this loop's command to the control loop. */
+    private static void publishCommand() {
+        mCommandLock.beginWrite();
+        mCommandShared.isHeightControl = mCommand.isHeightControl;
+        mCommandShared.height = mCommand.height;
+        mCommandShared.power = mCommand.power;
+        mCommandShared.id = mCommand.id;
+        mCommandLock.endWrite();
+    }
+
+    /** Copy the latest command, on the control loop. */
+    private static void readCommand() {
+        long version;
+        do{
+            version = mCommandLock.beginRead();
+            mControlCommand.isHeightControl = mCommandShared.isHeightControl;
+            mControlCommand.height = mCommandShared.height;
+            mControlCommand.power = mCommandShared.power;
+            mControlCommand.id = mCommandShared.id;
+        } while(mCommandLock.retry(version));
+    }
+
+    /**
+     * Hand what the control loop just did back to the robot loop.
+     * @param timestamp Time the inputs the run used were sampled, in microseconds
+     * @param isAtHeight Whether the Lift is at the end of its profile and on target
+     */
+    private static void publishStatus(long timestamp, boolean isAtHeight) {
+        mStatusLock.beginWrite();
+        mStatusShared.timestamp = timestamp;
+        mStatusShared.commandId = mActiveCommandId;
+        mStatusShared.power = mLiftPower;
+        mStatusShared.heightSetpoint = mHeightSetpoint;
+        mStatusShared.isAtHeight = isAtHeight;
+        mStatusShared.settleTime = mSettleTime;
+        mStatusShared.settleCount = mSettleCount;
+        mStatusShared.homeState = mHomeState;
+        mStatusLock.endWrite();
+    }
+
+    /** Copy the latest status from the control loop, on the robot loop. */
+    private static void readStatus() {
+        long version;
+        do{
+            version = mStatusLock.beginRead();
+            mStatus.timestamp = mStatusShared.timestamp;
+            mStatus.commandId = mStatusShared.commandId;
+            mStatus.power = mStatusShared.power;
+            mStatus.heightSetpoint = mStatusShared.heightSetpoint;
+            mStatus.isAtHeight = mStatusShared.isAtHeight;
+            mStatus.settleTime = mStatusShared.settleTime;
+            mStatus.settleCount = mStatusShared.settleCount;
+            mStatus.homeState = mStatusShared.homeState;
+        } while(mStatusLock.retry(version));
+    }
 
     /**
-     * Read the height of the Lift since last reset.
+     * Replace this loop's inputs with recorded values, instead of copying the latest sample.
+     * Used to replay a match log.
+     * @param timestamp Time the values were sampled, in microseconds
+     * @param height Lift height in inches
+     * @param speed Lift speed in inches per second
+     * @param isAtBottom Whether the bottom photoeye was tripped
+     * @param isAtTop Whether the top photoeye was tripped
+     */
+    public static void injectInputs(long timestamp, double height, double speed, boolean isAtBottom, boolean isAtTop) {
+        mInputs.timestamp = timestamp;
+        mInputs.height = height;
+        mInputs.speed = speed;
+        mInputs.isAtBottom = isAtBottom;
+        mInputs.isAtTop = isAtTop;
+    }
+
+    /**
+     * Put the control loop back in the state it was in before a recorded run, as log replay starts.
+     * Only while the control loop is not running.
+     * @param run Recorded control loop run, laid out by the RUN_ fields
+     * @param commandId Id of the last command the robot loop handed over before the replay starts
+     */
+    public static void primeReplay(double[] run, int commandId) {
+        mActiveCommandId = (int)run[RUN_ACTIVE_ID];
+        mHomeState = HomeState.values()[(int)run[RUN_HOMED]];
+        mWasAtBottom = run[RUN_WAS_AT_BOTTOM] != 0.0;
+        mCommand.id = commandId;
+    }
+
+    /**
+     * Run the control on a recorded control loop run, in place of the control loop, and read back
+     * its status. Only while the control loop is not running.
+     * @param run Recorded control loop run, laid out by the RUN_ fields
+     * @return [-1.0. 1.0] Power the run gave the Lift, to compare with the recorded power
+     */
+    public static double replayRun(double[] run) {
+        mControlInputs.timestamp = (long)run[RUN_TIMESTAMP];
+        mControlInputs.height = run[RUN_HEIGHT];
+        mControlInputs.speed = run[RUN_SPEED];
+        mControlInputs.isAtBottom = run[RUN_BOTTOM] != 0.0;
+        mControlInputs.isAtTop = run[RUN_TOP] != 0.0;
+        mControlCommand.isHeightControl = run[RUN_HEIGHT_CONTROL] != 0.0;
+        mControlCommand.height = run[RUN_COMMAND_HEIGHT];
+        mControlCommand.power = run[RUN_COMMAND_POWER];
+        mControlCommand.id = (int)run[RUN_COMMAND_ID];
+
+        runControl(mControlInputs, mControlCommand);
+        readStatus();
+        return mLiftPower;
+    }
+
+    /**
+     * Copy the latest Elevator sample and control loop status. Everything else reads these values
+     * for the rest of the loop, so the period, safety, and the dashboard all see the same reading.
+     */
+    public static void updateInputs() {
+        long version;
+        do{
+            version = mSampleLock.beginRead();
+            mInputs.timestamp = mSample.timestamp;
+            mInputs.height = mSample.height;
+            mInputs.speed = mSample.speed;
+            mInputs.isAtBottom = mSample.isAtBottom;
+            mInputs.isAtTop = mSample.isAtTop;
+        } while(mSampleLock.retry(version));
+
+        if(mIsControlRunning) readStatus();
+    }
+
+    /**
+     * Zero the Lift the first time the bottom photoeye trips, and hand the soft limits to the
+     * Falcon so it stops the Lift itself from then on. Only the rising edge counts, so the height
+     * is not zeroed over and over while the carriage sits on the photoeye.
+     * <p>
+     * The height is zeroed with an offset, like {@link Chassis#resetDistance()}, so it takes effect
+     * on this run without waiting for the Falcon to reset its sensor and send a new frame. The soft
+     * limits are moved by the same offset, and are sent again each run until they all go out.
+     * @param inputs Inputs the control loop is running on
+     */
+    private static void updateHoming(Inputs inputs) {
+        boolean isRisingEdge = inputs.isAtBottom && !mWasAtBottom;
+        mWasAtBottom = inputs.isAtBottom;
+
+        if(mHomeState == HomeState.UNHOMED && isRisingEdge){
+            mHeightOffset += inputs.height;
+            inputs.height = 0.0;
+            //The sample already went out with the old height
+            publishSample(inputs);
+            mHomeState = HomeState.ZEROED;
+        }
+
+        if(mHomeState == HomeState.ZEROED && configSoftLimits())
+            mHomeState = HomeState.HOMED;
+    }
+
+    /**
+     * Move the Falcon soft limits to where the Lift was zeroed, and turn them on. No timeout, so the
+     * control loop does not wait on the CAN bus.
+     * @return True if every setting went out
+     */
+    private static boolean configSoftLimits() {
+        boolean isSent = mtrLift.configReverseSoftLimitThreshold((mHeightOffset + LIFT_MIN_HEIGHT) / LIFT_INCHES_PER_PULSE, 0) == ErrorCode.OK;
+        isSent &= mtrLift.configForwardSoftLimitThreshold((mHeightOffset + LIFT_MAX_HEIGHT) / LIFT_INCHES_PER_PULSE, 0) == ErrorCode.OK;
+        isSent &= mtrLift.configReverseSoftLimitEnable(true, 0) == ErrorCode.OK;
+        isSent &= mtrLift.configForwardSoftLimitEnable(true, 0) == ErrorCode.OK;
+        return isSent;
+    }
+
+    /**
+     * Read whether the Lift has been zeroed on the bottom photoeye.
+     * @return Current homing state
+     */
+    public static HomeState getHomeState() {
+        return mStatus.homeState;
+    }
+
+    /**
+     * Read whether the Lift has been zeroed and its soft limits are on.
+     * @return True once the Lift has homed
+     */
+    public static boolean isLiftHomed() {
+        return mStatus.homeState == HomeState.HOMED;
+    }
+
+    /**
+     * Read the height of the Lift since last reset, as sampled at the start of the loop.
      * @param power Height in inches
      */
-    public static double getLiftHeight() {return encLift.getDistance(); }
+    public static double getLiftHeight() {return mInputs.height; }
 
     /**
-     * Read whether the Lift is at its bottom limit.
+     * Read the speed of the Lift, as sampled at the start of the loop.
+     * @return Speed in inches per second
+     */
+    public static double getLiftSpeed() {return mInputs.speed; }
+
+    /**
+     * Read whether the Lift is at its bottom limit, as sampled at the start of the loop.
      * @param power True if the bottom photoeye is tripped. 
      */
-    public static boolean isLiftAtBottom() { return phoLift_L.get(); }
+    public static boolean isLiftAtBottom() { return mInputs.isAtBottom; }
 
     /**
-     * Read whether the Lift is at its top limit.
+     * Read whether the Lift is at its top limit, as sampled at the start of the loop.
      * @param power True if the top photoeye is tripped. 
      */
-    public static boolean isLiftAtTop() { return phoLift_U.get(); }
+    public static boolean isLiftAtTop() { return mInputs.isAtTop; }
 
     /**
-     * Sets the Elevator power. 
+     * Read the power the control loop last gave the Lift.
+     * @return [-1.0. 1.0] Power to the Lift.
+     */
+    public static double getLiftPower(){
+        return mStatus.power;
+    }
+
+    /**
+     * Read whether this loop asked for height control.
+     * @return True if the height PID is enabled
+     */
+    public static boolean isHeightPIDEnabled(){
+        return mCommand.isHeightControl;
+    }
+
+    /**
+     * Read the height this loop asked the Lift to go to.
+     * @return Target in inches, only used while the height PID is enabled
+     */
+    public static double getHeightTarget(){
+        return mCommand.height;
+    }
+
+    /**
+     * Read the power this loop asked for.
+     * @return [-1.0. 1.0] Power to the Lift, only used while the height PID is disabled
+     */
+    public static double getCommandedPower(){
+        return mCommand.power;
+    }
+
+    /**
+     * Sets the Elevator power. Ignored while the height PID is enabled.
      * @param power [-1.0. 1.0] Power to the Lift.
      */
     public static void setLiftPower(double power){
-        mLiftPower = power;
+        mCommand.power = power;
     } 
 
+    /**
+     * Read the power that holds the Lift still against gravity.
+     * @return [-1.0. 1.0] Power to the Lift.
+     */
+    public static double getHoldPower(){
+        return ffLift.calculate(0.0, 0.0);
+    }
+
 
     /**
-     * Enabling PID and gives the Elevator a certain position to move to.
+     * Enabling PID and gives the Elevator a certain position to move to. The Lift follows a
+     * motion profile from wherever it is, at whatever speed it is already moving.
      * @param height target in inches.
      */
     public static void goToHeight(double height){
-        pidLift_Height.setSetpoint(height);
-        pidLift_Height.enable();
+        mCommand.isHeightControl = true;
+        mCommand.height = height;
+        mCommand.id++;
     }
 
     /**
@@ -157,14 +698,23 @@ import frc.robot.Robot;
      * @return true if elevator is at set height
      */
     public static boolean isAtHeight(){
-        return pidLift_Height.atSetpoint() && pidLift_Height.isEnabled();
+        //Only once the control loop has started on the latest preset
+        return mCommand.isHeightControl && mStatus.commandId == mCommand.id && mStatus.isAtHeight;
+    }
+
+    /**
+     * Read how long the last move took, from when the control loop started the preset to when the Elevator was at height.
+     * @return Time in seconds
+     */
+    public static double getSettleTime(){
+        return mStatus.settleTime;
     }
 
     /**
      * Disables PID control. 
      */
     public static void disableHeightPID(){
-        pidLift_Height.disable();
+        mCommand.isHeightControl = false;
     }
 
     /** Disable all PID control of the Elevator */
@@ -186,27 +736,114 @@ import frc.robot.Robot;
     }
     
     /**
-     * Updates motors, automatic system.
+     * Hands this loop's command to the control loop, and logs what it has done since.
      */
     public static void periodic() {
-        
+        LoopProfiler.start(Phase.ELEVATOR);
+
+        publishCommand();
+
+        if(mStatus.settleCount != mLoggedSettleCount){
+            mLoggedSettleCount = mStatus.settleCount;
+            AsyncLogger.log("Elevator settled (s):", mStatus.settleTime);
+        }
+        boolean isHomed = mStatus.homeState == HomeState.HOMED;
+        if(isHomed && !mWasHomed)
+            AsyncLogger.log("Elevator homed.");
+        mWasHomed = isHomed;
+
+        LoopProfiler.stop(Phase.ELEVATOR);
+    }
+
+    /** One run of the control loop, on its own thread. */
+    private static void runControlLoop() {
+        if(!mIsPriorityRaised){
+            mIsPriorityRaised = true;
+            if(RobotBase.isReal()) Threads.setCurrentThreadPriority(true, CONTROL_PRIORITY);
+        }
+
+        if(RobotBase.isSimulation()) simulationStep(CONTROL_PERIOD);
+        sampleSensors(mControlInputs);
+        readCommand();
+
+        //Record what this run starts from before the control changes any of it
+        mRun[RUN_TIMESTAMP] = mControlInputs.timestamp;
+        mRun[RUN_HEIGHT] = mControlInputs.height;
+        mRun[RUN_SPEED] = mControlInputs.speed;
+        mRun[RUN_BOTTOM] = mControlInputs.isAtBottom ? 1.0 : 0.0;
+        mRun[RUN_TOP] = mControlInputs.isAtTop ? 1.0 : 0.0;
+        mRun[RUN_HEIGHT_CONTROL] = mControlCommand.isHeightControl ? 1.0 : 0.0;
+        mRun[RUN_COMMAND_HEIGHT] = mControlCommand.height;
+        mRun[RUN_COMMAND_POWER] = mControlCommand.power;
+        mRun[RUN_COMMAND_ID] = mControlCommand.id;
+        mRun[RUN_ACTIVE_ID] = mActiveCommandId;
+        mRun[RUN_HOMED] = mHomeState.ordinal();
+        mRun[RUN_WAS_AT_BOTTOM] = mWasAtBottom ? 1.0 : 0.0;
+
+        runControl(mControlInputs, mControlCommand);
+
+        mRun[RUN_POWER] = mLiftPower;
+        mRuns.add(mRun);
+    }
+
+    /**
+     * Updates motors, automatic system.
+     * @param inputs Sensor values to control on
+     * @param command What the robot loop wants from the Lift
+     */
+    private static void runControl(Inputs inputs, Command command) {
+        //Home first, so this run already uses the zeroed height
+        updateHoming(inputs);
+        double timestamp = inputs.timestamp / 1.0e6;
+        boolean isAtHeight = false;
+
         //PID is override. 
-        if(pidLift_Height.isEnabled()){
-            setLiftPower(pidLift_Height.calculate(encLift.getDistance()));
+        if(command.isHeightControl){
+            //Each new preset starts a profile from wherever the Lift is, at whatever speed it is already moving
+            if(command.id != mActiveCommandId){
+                mActiveCommandId = command.id;
+                prfLift_Height = new TrapezoidProfile(LIFT_CONSTRAINTS, new TrapezoidProfile.State(command.height, 0.0), new TrapezoidProfile.State(inputs.height, inputs.speed));
+                mProfileStartTime = timestamp;
+                mProfileLastTime = 0.0;
+                mProfileLastSpeed = inputs.speed;
+                mIsSettling = true;
+
+                pidLift_Height.setSetpoint(inputs.height);
+                pidLift_Height.enable();
+            }
+
+            double time = timestamp - mProfileStartTime;
+            TrapezoidProfile.State target = prfLift_Height.calculate(time);
+            double acceleration = time > mProfileLastTime ? (target.velocity - mProfileLastSpeed) / (time - mProfileLastTime) : 0.0;
+            mProfileLastTime = time;
+            mProfileLastSpeed = target.velocity;
+
+            mHeightSetpoint = target.position;
+            pidLift_Height.setSetpoint(mHeightSetpoint);
+            mLiftPower = MathUtil.clamp(ffLift.calculate(target.velocity, acceleration) + pidLift_Height.calculate(inputs.height), -1.0, 1.0);
+
+            isAtHeight = pidLift_Height.atSetpoint() && prfLift_Height.isFinished(time);
+            if(mIsSettling && isAtHeight){
+                mIsSettling = false;
+                mSettleTime = time;
+                mSettleCount++;
+            }
+        } else {
+            if(pidLift_Height.isEnabled()) pidLift_Height.disable();
+            mIsSettling = false;
+            mLiftPower = command.power;
         }
 
-        //Safety Checks
-        if(isLiftAtBottom()){
+        //Safety Checks, the Falcon soft limits also stop the Lift once it has homed
+        if(inputs.isAtBottom)
             mLiftPower = MathUtil.clamp(mLiftPower, 0.0, Double.POSITIVE_INFINITY);
-            resetLiftHeight();
-        }
-        if(isLiftAtTop())
+        if(inputs.isAtTop)
             mLiftPower = MathUtil.clamp(mLiftPower, Double.NEGATIVE_INFINITY, 0.0);
 
-        
-        
+        //Update components, a Falcon that reset has lost its brake mode
+        mtrLift.checkReset(inputs.timestamp);
+        mtrLift.set(ControlMode.PercentOutput, mLiftPower, inputs.timestamp);
 
-    //Update components
-        mtrLift.set(ControlMode.PercentOutput, mLiftPower);
+        publishStatus(inputs.timestamp, isAtHeight);
     }
 }
@@ -2,9 +2,12 @@ package frc.robot.subsystem;
 
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.wpilibj.PneumaticsModuleType;
-import edu.wpi.first.wpilibj.Solenoid;
+import edu.wpi.first.wpilibj.RobotController;
 import frc.molib.dashboard.Entry;
 import frc.robot.Robot;
+import frc.robot.utilities.CachedSolenoid;
+import frc.robot.utilities.LoopProfiler;
+import frc.robot.utilities.LoopProfiler.Phase;
 
 
 /**
@@ -23,9 +26,9 @@ public class Manipulator {
     //Dashboard Entries setup
     private static Entry<Double> entManipulator_Position = new Entry<Double>(tblManipulator, "Manipulator Position");
 
-    //Creates components (motor and solenoid)
-    private static Solenoid solArm = new Solenoid(PneumaticsModuleType.CTREPCM, 0);
-    private static Solenoid solGrip = new Solenoid(PneumaticsModuleType.CTREPCM, 1);
+    //Creates components (motor and solenoid), cached so unchanged states are not resent every loop
+    private static CachedSolenoid solArm = new CachedSolenoid(PneumaticsModuleType.CTREPCM, 0);
+    private static CachedSolenoid solGrip = new CachedSolenoid(PneumaticsModuleType.CTREPCM, 1);
     
     //Set buffer/starting values so nothing goes zoom zoom until its told to zoom zoom
     private static boolean mArmIsExtended = false;
@@ -118,8 +121,13 @@ public class Manipulator {
      *Values are updated and runs the functions.
      */
     public static void periodic() {
-        //Update components
-        solArm.set(mArmIsExtended);
-        solGrip.set(mGripIsOpen);
+        LoopProfiler.start(Phase.MANIPULATOR);
+
+        //Update components, the Manipulator has no sensors so it reads the clock once for both
+        long timestamp = RobotController.getFPGATime();
+        solArm.set(mArmIsExtended, timestamp);
+        solGrip.set(mGripIsOpen, timestamp);
+
+        LoopProfiler.stop(Phase.MANIPULATOR);
     }
 }
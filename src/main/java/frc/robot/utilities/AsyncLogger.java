@@ -0,0 +1,201 @@
+package frc.robot.utilities;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * The Async Logger
+ * <p>
+ * Takes log messages off the robot loop. Logging only fills in a preallocated record on a ring
+ * buffer, a background thread formats the records and writes them to the console and a log file.
+ * Messages should be constants or built ahead of time, so logging never allocates.
+ * <p>
+ * Only the robot loop thread may log. If the writer falls behind, new messages are dropped and
+ * counted rather than blocking the loop.
+ */
+public class AsyncLogger {
+    private static final int CAPACITY = 256;
+    private static final int MASK = CAPACITY - 1;
+    private static final long WRITER_PERIOD_MS = 20;
+
+    private static final String REAL_DIRECTORY = "/home/lvuser/logs";
+    private static final String SIM_DIRECTORY = "logs";
+
+    /** A single log message, reused as the ring wraps around. */
+    private static final class Record {
+        private long timestamp;
+        private String message;
+        private double value;
+        private boolean hasValue;
+    }
+
+    //Ring buffer, written by the robot loop and read by the writer thread
+    private static final Record[] mRecords = new Record[CAPACITY];
+    private static final AtomicLong mHead = new AtomicLong(0);
+    private static final AtomicLong mTail = new AtomicLong(0);
+    private static volatile long mDropped = 0;
+
+    private static Thread thdWriter = null;
+
+    static {
+        for(int i = 0; i < CAPACITY; i++)
+            mRecords[i] = new Record();
+    }
+
+    /** Do not make an instance of the logger. */
+    private AsyncLogger(){}
+
+    /**
+     * Start the writer thread. Messages logged before this are held until it starts,
+     * as long as they fit in the buffer.
+     */
+    public static synchronized void start() {
+        if(thdWriter != null) return;
+
+        thdWriter = new Thread(AsyncLogger::write, "Async Logger");
+        thdWriter.setDaemon(true);
+        thdWriter.setPriority(Thread.MIN_PRIORITY);
+        thdWriter.start();
+    }
+
+    /**
+     * Log a message.
+     * @param message Message to log, should not be built on the loop
+     */
+    public static void log(String message) {
+        push(message, 0.0, false);
+    }
+
+    /**
+     * Log a message followed by a number.
+     * @param message Message to log, should not be built on the loop
+     * @param value Number to log after the message
+     */
+    public static void log(String message, double value) {
+        push(message, value, true);
+    }
+
+    /**
+     * Read how many messages have been dropped because the writer fell behind.
+     * @return Number of dropped messages
+     */
+    public static long getDroppedCount() {
+        return mDropped;
+    }
+
+    /**
+     * Fill in the next free record and hand it to the writer.
+     * @param message Message to log
+     * @param value Number to log
+     * @param hasValue Whether the number is logged
+     */
+    private static void push(String message, double value, boolean hasValue) {
+        long head = mHead.get();
+        if(head - mTail.get() >= CAPACITY){
+            mDropped++;
+            return;
+        }
+
+        Record record = mRecords[(int)(head & MASK)];
+        record.timestamp = RobotController.getFPGATime();
+        record.message = message;
+        record.value = value;
+        record.hasValue = hasValue;
+
+        //Publish the record only after it is filled in
+        mHead.lazySet(head + 1);
+    }
+
+    /** Writer thread, drains the ring buffer until the program ends. */
+    private static void write() {
+        BufferedWriter file = openFile();
+        PrintStream console = System.out;
+        StringBuilder line = new StringBuilder(256);
+        long reportedDrops = 0;
+
+        while(!Thread.currentThread().isInterrupted()){
+            long tail = mTail.get();
+            long head = mHead.get();
+
+            while(tail < head){
+                Record record = mRecords[(int)(tail & MASK)];
+
+                line.setLength(0);
+                line.append('[').append(String.format("%.3f", record.timestamp / 1.0e6)).append("] ").append(record.message);
+                if(record.hasValue) line.append(' ').append(record.value);
+                record.message = null;
+
+                //Hand the record back before doing the slow part
+                mTail.lazySet(++tail);
+                output(console, file, line);
+            }
+
+            long dropped = mDropped;
+            if(dropped != reportedDrops){
+                line.setLength(0);
+                line.append("[AsyncLogger] ").append(dropped - reportedDrops).append(" messages dropped");
+                output(console, file, line);
+                reportedDrops = dropped;
+            }
+
+            if(file != null){
+                try{
+                    file.flush();
+                } catch(IOException e){
+                    file = null;
+                }
+            }
+
+            try{
+                Thread.sleep(WRITER_PERIOD_MS);
+            } catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Write a line to the console and, if it is open, the log file.
+     * @param console Console to print to
+     * @param file Log file, may be null
+     * @param line Line to write
+     */
+    private static void output(PrintStream console, BufferedWriter file, CharSequence line) {
+        console.println(line);
+        if(file == null) return;
+
+        try{
+            file.append(line).append('\n');
+        } catch(IOException e){
+            //The console still has it
+        }
+    }
+
+    /**
+     * Open a new log file, named by when it was created.
+     * @return Log file, or null if it could not be opened
+     */
+    private static BufferedWriter openFile() {
+        Path directory = Paths.get(RobotBase.isReal() ? REAL_DIRECTORY : SIM_DIRECTORY);
+        String name = "console_" + new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date()) + ".log";
+
+        try{
+            Files.createDirectories(directory);
+            return Files.newBufferedWriter(directory.resolve(name), StandardCharsets.UTF_8);
+        } catch(IOException e){
+            System.err.println("[AsyncLogger] Could not open log file, logging to console only: " + e.getMessage());
+            return null;
+        }
+    }
+}
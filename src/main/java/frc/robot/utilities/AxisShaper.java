@@ -0,0 +1,80 @@
+package frc.robot.utilities;
+
+/**
+ * Joystick Axis Shaper
+ * <p>
+ * Turns a raw stick reading into a power: a deadband, a response curve, a scale, and a slew rate
+ * limit, in that order. The curve is looked up in a table built when it is configured, and every
+ * buffer is allocated up front, so shaping a reading never allocates.
+ * <p>
+ * The slew rate limit assumes it is called once per loop.
+ */
+public class AxisShaper {
+    //Curve samples across [0.0, 1.0], read with linear interpolation between them
+    private static final int TABLE_SIZE = 65;
+
+    private final double[] mTable = new double[TABLE_SIZE];
+    private final double mDeadband;
+    private final double mPeriod;
+
+    private double mMaxStep = Double.POSITIVE_INFINITY;
+    private double mLastOutput = 0.0;
+
+    /**
+     * @param deadband [0.0, 1.0) Readings smaller than this are treated as zero
+     * @param period Time between calls in seconds
+     */
+    public AxisShaper(double deadband, double period) {
+        mDeadband = deadband;
+        mPeriod = period;
+        configCurve(1.0);
+    }
+
+    /**
+     * Build the response curve. Meant to be called when the driver's options are read, not every loop.
+     * @param exponent Power the reading is raised to, 1.0 is linear, 2.0 squared
+     */
+    public void configCurve(double exponent) {
+        for(int i = 0; i < TABLE_SIZE; i++)
+            mTable[i] = Math.pow(i / (double)(TABLE_SIZE - 1), exponent);
+    }
+
+    /**
+     * Limit how fast the output can change.
+     * @param rate Largest change per second, zero or less for no limit
+     */
+    public void configRateLimit(double rate) {
+        mMaxStep = rate > 0.0 ? rate * mPeriod : Double.POSITIVE_INFINITY;
+    }
+
+    /** Forget the last output, so the next one starts from zero. */
+    public void reset() {
+        mLastOutput = 0.0;
+    }
+
+    /**
+     * Shape one reading.
+     * @param input [-1.0, 1.0] Raw stick reading
+     * @param scale Largest power the output may reach
+     * @return Shaped power
+     */
+    public double calculate(double input, double scale) {
+        double magnitude = Math.abs(input);
+        double target = 0.0;
+        if(magnitude > mDeadband){
+            //Start the curve from the edge of the deadband, so there is no jump when leaving it
+            double position = Math.min((magnitude - mDeadband) / (1.0 - mDeadband), 1.0) * (TABLE_SIZE - 1);
+            int index = Math.min((int)position, TABLE_SIZE - 2);
+            double fraction = position - index;
+            double curve = mTable[index] + (mTable[index + 1] - mTable[index]) * fraction;
+            target = Math.copySign(curve, input) * scale;
+        }
+
+        double step = target - mLastOutput;
+        if(step > mMaxStep) step = mMaxStep;
+        else if(step < -mMaxStep) step = -mMaxStep;
+        mLastOutput += step;
+
+        return mLastOutput;
+    }
+}
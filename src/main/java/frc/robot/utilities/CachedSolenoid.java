@@ -0,0 +1,50 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.wpilibj.PneumaticsModuleType;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Solenoid;
+
+/**
+ * Cached Solenoid
+ * <p>
+ * A Solenoid that skips writing a state the module already has, while still refreshing it
+ * every keep-alive period. Loops should pass the timestamp they already sampled, so a skipped
+ * write does not cost a clock read either.
+ * @see OutputCache
+ */
+public class CachedSolenoid extends Solenoid {
+    private boolean mHasSent = false;
+    private boolean mLastValue = false;
+    private long mLastSent = 0;
+
+    /**
+     * @param moduleType Type of pneumatics module the solenoid is wired to
+     * @param channel Channel on the module
+     */
+    public CachedSolenoid(PneumaticsModuleType moduleType, int channel) {
+        super(moduleType, channel);
+    }
+
+    @Override
+    public void set(boolean on) {
+        set(on, RobotController.getFPGATime());
+    }
+
+    /**
+     * Write a state, unless the module already has it.
+     * @param on True to turn the solenoid on
+     * @param timestamp FPGA time of the loop, in microseconds
+     */
+    public void set(boolean on, long timestamp) {
+        if(mHasSent && on == mLastValue && !OutputCache.isStale(mLastSent, OutputCache.OUTPUT_KEEP_ALIVE, timestamp)){
+            OutputCache.recordSkipped();
+            return;
+        }
+
+        super.set(on);
+        mHasSent = true;
+        mLastValue = on;
+        mLastSent = timestamp;
+        OutputCache.recordSent();
+    }
+}
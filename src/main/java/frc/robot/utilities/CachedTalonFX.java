@@ -0,0 +1,100 @@
+package frc.robot.utilities;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.NeutralMode;
+import com.ctre.phoenix.motorcontrol.can.WPI_TalonFX;
+
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * Cached TalonFX
+ * <p>
+ * A TalonFX that skips writing a control or neutral mode the controller already has, while
+ * still refreshing them every keep-alive period. Loops should pass the timestamp they already
+ * sampled, so a skipped write does not cost a clock read either.
+ * @see OutputCache
+ */
+public class CachedTalonFX extends WPI_TalonFX {
+    private ControlMode mLastMode = null;
+    private double mLastValue = Double.NaN;
+    private long mLastSent = 0;
+
+    private NeutralMode mLastNeutralMode = null;
+    private long mLastNeutralSent = 0;
+
+    /**
+     * @param deviceNumber CAN ID of the TalonFX
+     */
+    public CachedTalonFX(int deviceNumber) {
+        super(deviceNumber);
+    }
+
+    @Override
+    public void set(ControlMode mode, double value) {
+        set(mode, value, RobotController.getFPGATime());
+    }
+
+    /**
+     * Write a control mode and value, unless the controller already has them.
+     * @param mode Control mode
+     * @param value Value for the control mode
+     * @param timestamp FPGA time of the loop, in microseconds
+     */
+    public void set(ControlMode mode, double value, long timestamp) {
+        if(mode == mLastMode && value == mLastValue && !OutputCache.isStale(mLastSent, OutputCache.OUTPUT_KEEP_ALIVE, timestamp)){
+            OutputCache.recordSkipped();
+            return;
+        }
+
+        super.set(mode, value);
+        mLastMode = mode;
+        mLastValue = value;
+        mLastSent = timestamp;
+        OutputCache.recordSent();
+    }
+
+    @Override
+    public void setNeutralMode(NeutralMode mode) {
+        setNeutralMode(mode, RobotController.getFPGATime());
+    }
+
+    /**
+     * Write a neutral mode, unless the controller already has it.
+     * @param mode Neutral mode
+     * @param timestamp FPGA time of the loop, in microseconds
+     */
+    public void setNeutralMode(NeutralMode mode, long timestamp) {
+        if(mode == mLastNeutralMode && !OutputCache.isStale(mLastNeutralSent, OutputCache.CONFIG_KEEP_ALIVE, timestamp)){
+            OutputCache.recordSkipped();
+            return;
+        }
+
+        super.setNeutralMode(mode);
+        mLastNeutralMode = mode;
+        mLastNeutralSent = timestamp;
+        OutputCache.recordSent();
+    }
+
+    /**
+     * Check whether the controller has reset, from a brownout or losing CAN. It comes back up
+     * without its neutral mode, so the cached values are forgotten and the neutral mode is written
+     * again. Call once per loop, before writing outputs, from the loop that writes them.
+     * @param timestamp FPGA time of the loop, in microseconds
+     * @return True if the controller had reset
+     */
+    public boolean checkReset(long timestamp) {
+        if(!hasResetOccurred()) return false;
+
+        NeutralMode neutralMode = mLastNeutralMode;
+        invalidate();
+        if(neutralMode != null) setNeutralMode(neutralMode, timestamp);
+        return true;
+    }
+
+    /** Forget the cached values so the next writes always go out. */
+    public void invalidate() {
+        mLastMode = null;
+        mLastValue = Double.NaN;
+        mLastNeutralMode = null;
+    }
+}
@@ -0,0 +1,263 @@
+package frc.robot.utilities;
+
+import java.lang.management.ManagementFactory;
+
+import edu.wpi.first.cameraserver.CameraServer;
+import edu.wpi.first.cscore.CameraServerJNI;
+import edu.wpi.first.cscore.MjpegServer;
+import edu.wpi.first.cscore.UsbCamera;
+import edu.wpi.first.cscore.VideoMode.PixelFormat;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.molib.dashboard.Entry;
+import frc.molib.utilities.Console;
+import frc.robot.Robot;
+
+/**
+ * The Camera Stream
+ * <p>
+ * Runs the driver camera from its own thread, so the robot loop never waits on it. The stream
+ * settings follow the match period, low while disabled and in autonomous when nobody is driving
+ * by it, and higher in teleop. Within a period, the frame rate and then the resolution step down
+ * when the stream uses more than its share of the field bandwidth, and back up when there is room.
+ * <p>
+ * The camera's own JPEGs are always passed straight through, which costs the robot the least CPU
+ * and means the rate measured off the camera is the rate the stream sends. The budget assumes one
+ * viewer, each extra dashboard watching the stream gets its own copy.
+ * <p>
+ * If the camera is unplugged, the stream picks its settings back up once it is plugged in again.
+ * Bandwidth, frame rate, and robot CPU use are published so the cost of the stream can be watched.
+ */
+public class CameraStream {
+
+    /** Sizes the stream steps through, largest first. */
+    private enum Resolution {
+        LARGE("320x240", 320, 240),
+        SMALL("160x120", 160, 120);
+
+        public final String label;
+        public final int width;
+        public final int height;
+        private Resolution(String label, int width, int height) {
+            this.label = label;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override public String toString() {
+            return label;
+        }
+    }
+
+    /** Stream settings for each part of the match, the largest size and fastest rate it may use. */
+    private enum Profile {
+        DISABLED("Disabled", Resolution.SMALL, 5),
+        AUTONOMOUS("Autonomous", Resolution.SMALL, 10),
+        TELEOPERATED("Teleoperated", Resolution.LARGE, 20);
+
+        public final String label;
+        public final Resolution resolution;
+        public final int fps;
+        private Profile(String label, Resolution resolution, int fps) {
+            this.label = label;
+            this.resolution = resolution;
+            this.fps = fps;
+        }
+
+        @Override public String toString() {
+            return label;
+        }
+    }
+
+    //Bandwidth, the field allows 4 Mbps in total and NetworkTables needs the rest
+    private static final double BANDWIDTH_BUDGET = 2.0;
+    private static final double BANDWIDTH_HEADROOM = 0.6;
+
+    private static final Resolution[] RESOLUTIONS = Resolution.values();
+
+    //Pass the camera's JPEGs through as they are
+    private static final int COMPRESSION_PASSTHROUGH = -1;
+
+    //Frame rate steps, the camera sends less with each frame dropped
+    private static final int FPS_STEP = 2;
+    private static final int FPS_MIN = 4;
+
+    private static final long PERIOD_MS = 500;
+    private static final double TELEMETRY_PERIOD = 1.0;
+
+    //Network Table
+    private static final NetworkTable tblCamera = Robot.tblMain.getSubTable("Camera");
+
+    //Dashboard Entries
+    private static final Entry<String> entProfile = new Entry<String>(tblCamera, "Profile");
+    private static final Entry<Boolean> entConnected = new Entry<Boolean>(tblCamera, "Connected");
+    private static final Entry<Double> entFPS = new Entry<Double>(tblCamera, "FPS");
+    private static final Entry<Double> entBandwidth = new Entry<Double>(tblCamera, "Bandwidth Mbps");
+    private static final Entry<Double> entFPS_Limit = new Entry<Double>(tblCamera, "FPS Limit");
+    private static final Entry<String> entResolution = new Entry<String>(tblCamera, "Resolution");
+    private static final Entry<Double> entCPU = new Entry<Double>(tblCamera, "Robot CPU");
+
+    private static Thread thdCamera = null;
+
+    //Only touched by the camera thread
+    private static UsbCamera camMain = null;
+    private static MjpegServer srvMain = null;
+    private static Profile mProfile = null;
+    private static Resolution mResolution = null;
+    private static boolean mWasConnected = false;
+    private static int mFPS = 0;
+
+    /** Do not make an instance of the camera stream. */
+    private CameraStream(){}
+
+    /** Start the camera thread. Calling it again does nothing. */
+    public static synchronized void start() {
+        if(thdCamera != null) return;
+
+        thdCamera = new Thread(CameraStream::run, "Camera Stream");
+        thdCamera.setDaemon(true);
+        thdCamera.setPriority(Thread.MIN_PRIORITY);
+        thdCamera.start();
+    }
+
+    /** Open the camera, then keep its settings up to date for as long as the robot runs. */
+    private static void run() {
+        try{
+            CameraServerJNI.setTelemetryPeriod(TELEMETRY_PERIOD);
+            camMain = CameraServer.startAutomaticCapture("Main Camera", 0);
+            srvMain = (MjpegServer)CameraServer.getServer();
+            srvMain.setCompression(COMPRESSION_PASSTHROUGH);
+        } catch(RuntimeException e){
+            //Run without a camera rather than take the robot down
+            Console.logMsg("Camera failed to start: " + e.getMessage());
+            return;
+        }
+
+        while(!Thread.currentThread().isInterrupted()){
+            update();
+
+            try{
+                Thread.sleep(PERIOD_MS);
+            } catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /** Match the stream to the period and the bandwidth it is using, and publish what it costs. */
+    private static void update() {
+        boolean isConnected = camMain.isConnected();
+        Profile profile = getProfile();
+
+        //A camera that was plugged back in comes back with its own settings
+        if(profile != mProfile || (isConnected && !mWasConnected)){
+            if(isConnected && !mWasConnected && mProfile != null)
+                Console.logMsg("Camera reconnected.");
+            apply(profile);
+        } else if(isConnected){
+            adapt(profile);
+        }
+        if(!isConnected && mWasConnected)
+            Console.logMsg("Camera disconnected.");
+        mWasConnected = isConnected;
+
+        entProfile.set(profile.label);
+        entConnected.set(isConnected);
+        entFPS.set(isConnected ? camMain.getActualFPS() : 0.0);
+        entBandwidth.set(isConnected ? getBandwidth() : 0.0);
+        entFPS_Limit.set((double)mFPS);
+        entResolution.set(mResolution != null ? mResolution.label : "");
+        entCPU.set(getProcessCPU());
+    }
+
+    /**
+     * Pick the settings for the part of the match the robot is in.
+     * @return Profile to stream with
+     */
+    private static Profile getProfile() {
+        if(DriverStation.isDisabled()) return Profile.DISABLED;
+        if(DriverStation.isAutonomous()) return Profile.AUTONOMOUS;
+        return Profile.TELEOPERATED;
+    }
+
+    /**
+     * Set the camera and stream to a profile, at its full size and frame rate.
+     * @param profile Profile to stream with
+     */
+    private static void apply(Profile profile) {
+        //Capture as MJPEG, so the stream can pass frames through without decoding them
+        camMain.setVideoMode(PixelFormat.kMJPEG, profile.resolution.width, profile.resolution.height, profile.fps);
+        srvMain.setResolution(profile.resolution.width, profile.resolution.height);
+        mResolution = profile.resolution;
+        setFPS(profile.fps);
+        mProfile = profile;
+    }
+
+    /**
+     * Step down when the stream is over its bandwidth budget, the frame rate first and then the
+     * size once the frame rate is as low as it goes. Step back up the same way once there is room,
+     * only going to a larger size when it is expected to fit.
+     * @param profile Profile being streamed
+     */
+    private static void adapt(Profile profile) {
+        double bandwidth = getBandwidth();
+        int index = mResolution.ordinal();
+
+        if(bandwidth > BANDWIDTH_BUDGET){
+            if(mFPS > FPS_MIN)
+                setFPS(Math.max(FPS_MIN, mFPS - FPS_STEP));
+            else if(index < RESOLUTIONS.length - 1)
+                setResolution(RESOLUTIONS[index + 1]);
+        } else if(bandwidth < BANDWIDTH_BUDGET * BANDWIDTH_HEADROOM){
+            if(mFPS < profile.fps){
+                setFPS(Math.min(profile.fps, mFPS + FPS_STEP));
+            } else if(index > profile.resolution.ordinal()){
+                //Bandwidth goes up about with the number of pixels
+                Resolution larger = RESOLUTIONS[index - 1];
+                double scale = (double)(larger.width * larger.height) / (mResolution.width * mResolution.height);
+                if(bandwidth * scale < BANDWIDTH_BUDGET * BANDWIDTH_HEADROOM) setResolution(larger);
+            }
+        }
+    }
+
+    /**
+     * Set the size of both the camera and the stream, so the stream never has to scale frames.
+     * @param resolution Size to stream at
+     */
+    private static void setResolution(Resolution resolution) {
+        camMain.setResolution(resolution.width, resolution.height);
+        srvMain.setResolution(resolution.width, resolution.height);
+        mResolution = resolution;
+    }
+
+    /**
+     * Set the frame rate of both the camera and the stream, so frames are not captured only to be dropped.
+     * @param fps Frames per second
+     */
+    private static void setFPS(int fps) {
+        camMain.setFPS(fps);
+        srvMain.setFPS(fps);
+        mFPS = fps;
+    }
+
+    /**
+     * Read how much data the camera is sending. The frames are passed straight through, so this
+     * is what the stream sends to one viewer.
+     * @return Bandwidth in megabits per second
+     */
+    private static double getBandwidth() {
+        return camMain.getActualDataRate() * 8.0 / 1.0e6;
+    }
+
+    /**
+     * Read how busy the robot program is. The stream runs in native threads, so this covers
+     * the whole program, watch how it moves as the stream changes.
+     * @return [0.0, 100.0] Percent of the CPU in use, or -1.0 if it cannot be read
+     */
+    private static double getProcessCPU() {
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if(!(os instanceof com.sun.management.OperatingSystemMXBean)) return -1.0;
+        double load = ((com.sun.management.OperatingSystemMXBean)os).getProcessCpuLoad();
+        return load < 0.0 ? -1.0 : load * 100.0;
+    }
+}
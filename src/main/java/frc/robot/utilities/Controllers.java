@@ -0,0 +1,23 @@
+package frc.robot.utilities;
+
+/**
+ * The Controllers
+ * <p>
+ * Every period reads the driver and operator controllers through these snapshots, so each
+ * controller is read from the Driver Station once per loop no matter how many bindings it has.
+ */
+public class Controllers {
+    /** Driver controller, port 0. */
+    public static final XboxSnapshot ctlDriver = new XboxSnapshot(0);
+    /** Operator controller, port 1. */
+    public static final XboxSnapshot ctlOperator = new XboxSnapshot(1);
+
+    /** Do not make an instance of the controllers. */
+    private Controllers(){}
+
+    /** Take this loop's snapshot of every controller. */
+    public static void update() {
+        ctlDriver.update();
+        ctlOperator.update();
+    }
+}
@@ -0,0 +1,114 @@
+package frc.robot.utilities;
+
+/**
+ * Curvature Drive
+ * <p>
+ * Steering sets how tightly the Chassis curves rather than how fast it spins, so a turn follows
+ * the same arc at any throttle. Quick-turn spins in place instead. Negative inertia briefly
+ * overshoots the steering when it changes, to make up for the Chassis being slow to start and stop
+ * turning, and a quick-stop term kills the spin left over after a quick-turn.
+ * <p>
+ * Keeps its state between loops, so it should be called once per loop and reset when driving starts.
+ */
+public class CurvatureDrive {
+    //Steering response, bends the middle of the stick toward gentler turns
+    private static final double WHEEL_NONLINEARITY = 0.5;
+    private static final double WHEEL_DENOMINATOR = Math.sin(Math.PI / 2.0 * WHEEL_NONLINEARITY);
+    //How tight a full stick curves, in turn power per throttle power
+    private static final double TURN_SENSITIVITY = 0.65;
+    private static final double NEGATIVE_INERTIA_SCALAR = 4.0;
+    //Quick-stop only builds up while nearly stopped
+    private static final double QUICK_STOP_DEADBAND = 0.2;
+    private static final double QUICK_STOP_WEIGHT = 0.1;
+    private static final double QUICK_STOP_SCALAR = 5.0;
+
+    private double mLastWheel = 0.0;
+    private double mNegativeInertiaAccumulator = 0.0;
+    private double mQuickStopAccumulator = 0.0;
+
+    private double mPower_L = 0.0;
+    private double mPower_R = 0.0;
+
+    /** Forget the steering history, so the next loop starts fresh. */
+    public void reset() {
+        mLastWheel = 0.0;
+        mNegativeInertiaAccumulator = 0.0;
+        mQuickStopAccumulator = 0.0;
+        mPower_L = 0.0;
+        mPower_R = 0.0;
+    }
+
+    /**
+     * Work out the power to each side for one loop. Read the results with {@link #getPower_L()}
+     * and {@link #getPower_R()}.
+     * @param throttle Forward power, already scaled to the top speed
+     * @param wheel [-1.0, 1.0] Steering, positive to the right
+     * @param isQuickTurn True to spin in place instead of curving
+     * @param scale Top speed, neither side is given more power than this
+     */
+    public void calculate(double throttle, double wheel, boolean isQuickTurn, double scale) {
+        double negativeInertia = wheel - mLastWheel;
+        mLastWheel = wheel;
+
+        //Applied twice for a softer center
+        wheel = Math.sin(Math.PI / 2.0 * WHEEL_NONLINEARITY * wheel) / WHEEL_DENOMINATOR;
+        wheel = Math.sin(Math.PI / 2.0 * WHEEL_NONLINEARITY * wheel) / WHEEL_DENOMINATOR;
+
+        //Negative inertia builds up and then bleeds off by one full stick each loop
+        mNegativeInertiaAccumulator += negativeInertia * NEGATIVE_INERTIA_SCALAR;
+        wheel += mNegativeInertiaAccumulator;
+        mNegativeInertiaAccumulator = decay(mNegativeInertiaAccumulator);
+
+        double angularPower;
+        if(isQuickTurn){
+            if(Math.abs(throttle) < QUICK_STOP_DEADBAND * scale){
+                double limited = Math.max(-1.0, Math.min(1.0, wheel));
+                mQuickStopAccumulator = (1.0 - QUICK_STOP_WEIGHT) * mQuickStopAccumulator + QUICK_STOP_WEIGHT * limited * QUICK_STOP_SCALAR;
+            }
+            angularPower = wheel * scale;
+        } else {
+            angularPower = Math.abs(throttle) * wheel * TURN_SENSITIVITY - mQuickStopAccumulator * scale;
+            mQuickStopAccumulator = decay(mQuickStopAccumulator);
+        }
+
+        double power_L = throttle + angularPower;
+        double power_R = throttle - angularPower;
+
+        //Scale both sides down together, so the curve is kept when one side would go past the top speed
+        double largest = Math.max(Math.abs(power_L), Math.abs(power_R));
+        if(largest > scale && largest > 0.0){
+            power_L *= scale / largest;
+            power_R *= scale / largest;
+        }
+
+        mPower_L = power_L;
+        mPower_R = power_R;
+    }
+
+    /**
+     * Read the power for the left side, from the last calculation.
+     * @return Power to the left side of the chassis
+     */
+    public double getPower_L() {
+        return mPower_L;
+    }
+
+    /**
+     * Read the power for the right side, from the last calculation.
+     * @return Power to the right side of the chassis
+     */
+    public double getPower_R() {
+        return mPower_R;
+    }
+
+    /**
+     * Bleed off an accumulator by one full stick, or clear it once it is smaller than that.
+     * @param accumulator Value to bleed off
+     * @return Value after this loop
+     */
+    private static double decay(double accumulator) {
+        if(accumulator > 1.0) return accumulator - 1.0;
+        if(accumulator < -1.0) return accumulator + 1.0;
+        return 0.0;
+    }
+}
@@ -0,0 +1,82 @@
+package frc.robot.utilities;
+
+/**
+ * Fixed-size Histogram
+ * <p>
+ * Counts values into equal width buckets allocated up front, so recording never allocates.
+ * Values past the last bucket are counted in an overflow bucket, the true maximum is still kept.
+ */
+public class Histogram {
+    private final int[] mBuckets;
+    private final long mBucketWidth;
+
+    private long mCount = 0;
+    private long mMax = 0;
+
+    /**
+     * @param bucketCount Number of buckets before the overflow bucket
+     * @param bucketWidth Range of values covered by each bucket
+     */
+    public Histogram(int bucketCount, long bucketWidth) {
+        mBuckets = new int[bucketCount + 1];
+        mBucketWidth = bucketWidth;
+    }
+
+    /**
+     * Count a value.
+     * @param value Value to count, negative values are counted as zero
+     */
+    public void record(long value) {
+        if(value < 0) value = 0;
+
+        long index = value / mBucketWidth;
+        if(index >= mBuckets.length) index = mBuckets.length - 1;
+
+        mBuckets[(int)index]++;
+        mCount++;
+        if(value > mMax) mMax = value;
+    }
+
+    /**
+     * Read a percentile of the counted values.
+     * @param percentile [0.0, 1.0] Fraction of values that fall at or below the result
+     * @return Upper edge of the bucket holding the percentile, or the maximum if it overflowed
+     */
+    public long getPercentile(double percentile) {
+        if(mCount == 0) return 0;
+
+        long target = (long)Math.ceil(percentile * mCount);
+        if(target < 1) target = 1;
+
+        long seen = 0;
+        for(int i = 0; i < mBuckets.length - 1; i++){
+            seen += mBuckets[i];
+            if(seen >= target) return Math.min((i + 1) * mBucketWidth, mMax);
+        }
+        return mMax;
+    }
+
+    /**
+     * Read the largest value counted.
+     * @return Maximum value
+     */
+    public long getMax() {
+        return mMax;
+    }
+
+    /**
+     * Read how many values have been counted.
+     * @return Number of values
+     */
+    public long getCount() {
+        return mCount;
+    }
+
+    /** Forget every value counted so far. */
+    public void reset() {
+        for(int i = 0; i < mBuckets.length; i++)
+            mBuckets[i] = 0;
+        mCount = 0;
+        mMax = 0;
+    }
+}
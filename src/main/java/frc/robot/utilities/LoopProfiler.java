@@ -0,0 +1,168 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.molib.dashboard.Entry;
+import frc.robot.Robot;
+
+/**
+ * The Loop Profiler
+ * <p>
+ * Times every phase of the robot loop against the FPGA clock and keeps the results in
+ * preallocated histograms. Phases may nest, a phase only counts the time not spent in the
+ * phases it calls. Percentiles, overruns, and the phase to blame for them are published at 1 Hz.
+ * The percentiles and max cover the loops since the last publish, so one slow loop at boot does
+ * not hide everything after it.
+ */
+public class LoopProfiler {
+
+    /** Timed sections of the robot loop. */
+    public enum Phase {
+        SENSORS("Sensors"),
+        CONTROLLERS("Controllers"),
+        PERIOD("Period"),
+        CHASSIS("Chassis"),
+        ELEVATOR("Elevator"),
+        MANIPULATOR("Manipulator"),
+        DASHBOARD("Dashboard"),
+        LOG("Log"),
+        /** Everything else TimedRobot does in a loop, found by subtracting the timed phases. */
+        OTHER("Other");
+
+        public final String label;
+        private Phase(String label) {
+            this.label = label;
+        }
+
+        @Override public String toString() {
+            return label;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final int PUBLISH_CYCLES = 50;
+
+    //Network Table
+    private static final NetworkTable tblLoopTiming = Robot.tblMain.getSubTable("Loop Timing");
+
+    //Dashboard Entries
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Entry<Double>[] entPhase_P50 = new Entry[PHASES.length];
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Entry<Double>[] entPhase_P99 = new Entry[PHASES.length];
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Entry<Double>[] entPhase_Max = new Entry[PHASES.length];
+    private static final Entry<Double> entOverruns = new Entry<Double>(tblLoopTiming, "Overruns");
+    private static final Entry<String> entWorst_Phase = new Entry<String>(tblLoopTiming, "Worst Phase");
+
+    //Timing buffers, 10us buckets up to 40ms
+    private static final Histogram[] mHistograms = new Histogram[PHASES.length];
+    private static final long[] mStartTime = new long[PHASES.length];
+    private static final long[] mChildTime = new long[PHASES.length];
+    private static final long[] mCycleTime = new long[PHASES.length];
+    private static final long[] mOverrunBlame = new long[PHASES.length];
+    private static final int[] mStack = new int[PHASES.length];
+    private static int mDepth = 0;
+
+    private static long mCycleStart = 0;
+    private static long mOverruns = 0;
+    private static int mCyclesSincePublish = 0;
+
+    static {
+        for(Phase phase : PHASES){
+            NetworkTable tblPhase = tblLoopTiming.getSubTable(phase.label);
+            entPhase_P50[phase.ordinal()] = new Entry<Double>(tblPhase, "P50 ms");
+            entPhase_P99[phase.ordinal()] = new Entry<Double>(tblPhase, "P99 ms");
+            entPhase_Max[phase.ordinal()] = new Entry<Double>(tblPhase, "Max ms");
+            mHistograms[phase.ordinal()] = new Histogram(4000, 10);
+        }
+    }
+
+    /** Do not make an instance of the profiler. */
+    private LoopProfiler(){}
+
+    /** Mark the start of a robot loop. */
+    public static void beginCycle() {
+        mDepth = 0;
+        mCycleStart = RobotController.getFPGATime();
+    }
+
+    /**
+     * Start timing a phase.
+     * @param phase Phase that is starting
+     */
+    public static void start(Phase phase) {
+        int index = phase.ordinal();
+        mChildTime[index] = 0;
+        mStartTime[index] = RobotController.getFPGATime();
+        if(mDepth < mStack.length) mStack[mDepth++] = index;
+    }
+
+    /**
+     * Stop timing a phase. Its time is taken away from whichever phase it was called from.
+     * @param phase Phase that has finished
+     */
+    public static void stop(Phase phase) {
+        int index = phase.ordinal();
+        long elapsed = RobotController.getFPGATime() - mStartTime[index];
+
+        mCycleTime[index] += elapsed - mChildTime[index];
+        if(mDepth > 0) mDepth--;
+        if(mDepth > 0) mChildTime[mStack[mDepth - 1]] += elapsed;
+    }
+
+    /**
+     * Mark the end of a robot loop, record each phase and check for an overrun.
+     * @param period Loop period in seconds
+     */
+    public static void endCycle(double period) {
+        long total = RobotController.getFPGATime() - mCycleStart;
+
+        long timed = 0;
+        for(int i = 0; i < PHASES.length; i++)
+            timed += mCycleTime[i];
+        mCycleTime[Phase.OTHER.ordinal()] = Math.max(total - timed, 0);
+
+        int worst = 0;
+        for(int i = 0; i < PHASES.length; i++){
+            mHistograms[i].record(mCycleTime[i]);
+            if(mCycleTime[i] > mCycleTime[worst]) worst = i;
+            mCycleTime[i] = 0;
+        }
+
+        if(total > (long)(period * 1.0e6)){
+            mOverruns++;
+            mOverrunBlame[worst]++;
+        }
+
+        if(++mCyclesSincePublish >= PUBLISH_CYCLES){
+            mCyclesSincePublish = 0;
+            pushDashboardValues();
+        }
+    }
+
+    /**
+     * Read the phase that was the largest part of the most overrun loops.
+     * @return Worst phase, or null if no loop has overrun
+     */
+    public static Phase getWorstPhase() {
+        int worst = -1;
+        for(int i = 0; i < PHASES.length; i++)
+            if(mOverrunBlame[i] > 0 && (worst < 0 || mOverrunBlame[i] > mOverrunBlame[worst])) worst = i;
+        return worst < 0 ? null : PHASES[worst];
+    }
+
+    /** Push new values to the dashboard, and start a new window. */
+    private static void pushDashboardValues() {
+        for(int i = 0; i < PHASES.length; i++){
+            entPhase_P50[i].set(mHistograms[i].getPercentile(0.50) / 1000.0);
+            entPhase_P99[i].set(mHistograms[i].getPercentile(0.99) / 1000.0);
+            entPhase_Max[i].set(mHistograms[i].getMax() / 1000.0);
+            mHistograms[i].reset();
+        }
+
+        Phase worst = getWorstPhase();
+        entOverruns.set((double)mOverruns);
+        entWorst_Phase.set(worst == null ? "None" : worst.label);
+    }
+}
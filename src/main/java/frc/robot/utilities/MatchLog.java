@@ -0,0 +1,248 @@
+package frc.robot.utilities;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import edu.wpi.first.util.datalog.BooleanLogEntry;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.IntegerLogEntry;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotBase;
+
+/**
+ * The Match Log
+ * <p>
+ * Records subsystem inputs and outputs every loop to a WPILOG file, readable by AdvantageScope or
+ * the WPILib log tools. Values are handed to a DataLog, which buffers them and writes them to disk
+ * on its own thread, so the loop never waits on the disk.
+ * <p>
+ * Values are only recorded when they change, except records, which are recorded every time. While disabled, values are only checked every
+ * {@value #DISABLED_DIVIDER} loops, so time spent waiting in the queue does not use up the file.
+ * Once the file reaches {@value #MAX_BYTES} bytes, recording stops.
+ */
+public class MatchLog {
+    /** Robot modes, as recorded under {@value #MODE_CHANNEL}. */
+    public static final String MODE_DISABLED = "Disabled";
+    public static final String MODE_AUTONOMOUS = "Autonomous";
+    public static final String MODE_TELEOPERATED = "Teleoperated";
+    public static final String MODE_TEST = "Test";
+    /** Channel the robot mode is recorded to, at the start of each recorded loop. */
+    public static final String MODE_CHANNEL = "Robot/Mode";
+
+    /** Largest the log is allowed to grow, in bytes. */
+    public static final long MAX_BYTES = 16L * 1024L * 1024L;
+    /** While disabled, only record every this many loops. */
+    public static final int DISABLED_DIVIDER = 25;
+
+    private static final String REAL_DIRECTORY = "/home/lvuser/logs";
+    private static final String SIM_DIRECTORY = "logs";
+    private static final double FLUSH_PERIOD = 0.25;
+
+    //Rough size of a record without its value, header plus entry id and timestamp
+    private static final int RECORD_OVERHEAD = 12;
+
+    /** A number recorded to the log. */
+    public static final class DoubleChannel {
+        private final DoubleLogEntry entry;
+        private double lastValue = Double.NaN;
+
+        private DoubleChannel(String name) {
+            entry = new DoubleLogEntry(mLog, name);
+        }
+
+        /**
+         * Record a number, if it changed.
+         * @param value Number to record
+         */
+        public void append(double value) {
+            if(!mIsRecording || Double.doubleToLongBits(value) == Double.doubleToLongBits(lastValue)) return;
+            if(!reserve(Double.BYTES)) return;
+            entry.append(value);
+            lastValue = value;
+        }
+    }
+
+    /** A whole number recorded to the log. */
+    public static final class IntegerChannel {
+        private final IntegerLogEntry entry;
+        private long lastValue = Long.MIN_VALUE;
+
+        private IntegerChannel(String name) {
+            entry = new IntegerLogEntry(mLog, name);
+        }
+
+        /**
+         * Record a whole number, if it changed.
+         * @param value Number to record
+         */
+        public void append(long value) {
+            if(!mIsRecording || value == lastValue) return;
+            if(!reserve(Long.BYTES)) return;
+            entry.append(value);
+            lastValue = value;
+        }
+    }
+
+    /** A flag recorded to the log. */
+    public static final class BooleanChannel {
+        private final BooleanLogEntry entry;
+        private int lastValue = -1;
+
+        private BooleanChannel(String name) {
+            entry = new BooleanLogEntry(mLog, name);
+        }
+
+        /**
+         * Record a flag, if it changed.
+         * @param value Flag to record
+         */
+        public void append(boolean value) {
+            int bit = value ? 1 : 0;
+            if(!mIsRecording || bit == lastValue) return;
+            if(!reserve(1)) return;
+            entry.append(value);
+            lastValue = bit;
+        }
+    }
+
+    /** A record of numbers recorded to the log, for a group of values that all belong to one moment. */
+    public static final class RecordChannel {
+        private final DoubleArrayLogEntry entry;
+
+        private RecordChannel(String name) {
+            entry = new DoubleArrayLogEntry(mLog, name);
+        }
+
+        /**
+         * Record a group of numbers, whether or not they changed.
+         * @param values Numbers to record
+         */
+        public void append(double[] values) {
+            if(!mIsRecording) return;
+            if(!reserve(values.length * Double.BYTES)) return;
+            entry.append(values);
+        }
+    }
+
+    /** Text recorded to the log. Meant for labels that rarely change, like a selected option. */
+    public static final class StringChannel {
+        private final StringLogEntry entry;
+        private String lastValue = null;
+
+        private StringChannel(String name) {
+            entry = new StringLogEntry(mLog, name);
+        }
+
+        /**
+         * Record text, if it is not the same object as last time.
+         * @param value Text to record
+         */
+        public void append(String value) {
+            if(!mIsRecording || value == null || value == lastValue) return;
+            if(!reserve(value.length())) return;
+            entry.append(value);
+            lastValue = value;
+        }
+    }
+
+    private static DataLog mLog = null;
+    private static StringChannel logMode;
+    private static boolean mIsRecording = false;
+    private static boolean mIsFull = false;
+    private static long mBytes = 0;
+    private static long mCycle = 0;
+
+    /** Do not make an instance of the log. */
+    private MatchLog(){}
+
+    /** Open a new log file, named by when it was created. Channels can be added once this has run. */
+    public static void start() {
+        if(mLog != null) return;
+
+        String directory = RobotBase.isReal() ? REAL_DIRECTORY : SIM_DIRECTORY;
+        new File(directory).mkdirs();
+        String name = "match_" + new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date()) + ".wpilog";
+
+        mLog = new DataLog(directory, name, FLUSH_PERIOD, "");
+        logMode = addString(MODE_CHANNEL);
+    }
+
+    /**
+     * Add a number to the log.
+     * @param name Name of the value, with slashes to group it
+     */
+    public static DoubleChannel addDouble(String name) {
+        return new DoubleChannel(name);
+    }
+
+    /**
+     * Add a whole number to the log.
+     * @param name Name of the value, with slashes to group it
+     */
+    public static IntegerChannel addInteger(String name) {
+        return new IntegerChannel(name);
+    }
+
+    /**
+     * Add a flag to the log.
+     * @param name Name of the value, with slashes to group it
+     */
+    public static BooleanChannel addBoolean(String name) {
+        return new BooleanChannel(name);
+    }
+
+    /**
+     * Add a record of numbers to the log.
+     * @param name Name of the record, with slashes to group it
+     */
+    public static RecordChannel addRecord(String name) {
+        return new RecordChannel(name);
+    }
+
+    /**
+     * Add text to the log.
+     * @param name Name of the value, with slashes to group it
+     */
+    public static StringChannel addString(String name) {
+        return new StringChannel(name);
+    }
+
+    /** Decide whether this loop gets recorded. Call once per loop, before any values are recorded. */
+    public static void beginCycle() {
+        mCycle++;
+        mIsRecording = mLog != null && !mIsFull && (DriverStation.isEnabled() || mCycle % DISABLED_DIVIDER == 0);
+
+        if(DriverStation.isDisabled()) logMode.append(MODE_DISABLED);
+        else if(DriverStation.isAutonomous()) logMode.append(MODE_AUTONOMOUS);
+        else if(DriverStation.isTest()) logMode.append(MODE_TEST);
+        else logMode.append(MODE_TELEOPERATED);
+    }
+
+    /**
+     * Read roughly how large the log has grown.
+     * @return Size in bytes
+     */
+    public static long getBytes() {
+        return mBytes;
+    }
+
+    /**
+     * Count a record against the size limit.
+     * @param size Size of the value in bytes
+     * @return True if there is room for it
+     */
+    private static boolean reserve(int size) {
+        if(mBytes + RECORD_OVERHEAD + size > MAX_BYTES){
+            mIsFull = true;
+            mIsRecording = false;
+            AsyncLogger.log("Match log is full, recording stopped");
+            return false;
+        }
+        mBytes += RECORD_OVERHEAD + size;
+        return true;
+    }
+}
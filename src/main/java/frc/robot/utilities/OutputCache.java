@@ -0,0 +1,94 @@
+package frc.robot.utilities;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.molib.dashboard.Entry;
+import frc.robot.Robot;
+
+/**
+ * The Output Cache
+ * <p>
+ * Shared bookkeeping for the cached motor and solenoid outputs. An output is only written
+ * when it changes, or when it has not been written for longer than its keep-alive period.
+ * Counts how many write calls were made and skipped, and publishes both as a per second rate.
+ * <p>
+ * Skipping a write saves the call into the vendor library, not a CAN frame. The motor
+ * controllers already send their control frames on a fixed schedule either way.
+ * Outputs can be written from control loops as well as the robot loop, so the counts are thread safe.
+ */
+public class OutputCache {
+    /** Longest time a motor output goes without being rewritten, in microseconds. */
+    public static final long OUTPUT_KEEP_ALIVE = 100000;
+    /** Longest time a configuration, such as neutral mode, goes without being rewritten, in microseconds. */
+    public static final long CONFIG_KEEP_ALIVE = 1000000;
+
+    //Network Table
+    private static final NetworkTable tblOutputs = Robot.tblMain.getSubTable("Outputs");
+
+    //Dashboard Entries
+    private static final Entry<Double> entCalls_Sent = new Entry<Double>(tblOutputs, "Calls Sent per Second");
+    private static final Entry<Double> entCalls_Skipped = new Entry<Double>(tblOutputs, "Calls Skipped per Second");
+
+    //Buffer variables
+    private static final LongAdder mSent = new LongAdder();
+    private static final LongAdder mSkipped = new LongAdder();
+    private static long mWindowStart = 0;
+    private static double mSentPerSecond = 0.0;
+    private static double mSkippedPerSecond = 0.0;
+
+    /** Do not make an instance of the output cache. */
+    private OutputCache(){}
+
+    /**
+     * Check whether an output is due for a keep-alive write.
+     * @param lastSent FPGA time the output was last written, in microseconds
+     * @param keepAlive Keep-alive period, in microseconds
+     * @param timestamp FPGA time now, in microseconds
+     * @return True if the output should be written again even though it has not changed
+     */
+    static boolean isStale(long lastSent, long keepAlive, long timestamp) {
+        return timestamp - lastSent >= keepAlive;
+    }
+
+    /** Count a write that was made. */
+    static void recordSent() {
+        mSent.increment();
+    }
+
+    /** Count a write that was skipped. */
+    static void recordSkipped() {
+        mSkipped.increment();
+    }
+
+    /**
+     * Read how many writes were made over the last second.
+     * @return Calls per second
+     */
+    public static double getSentPerSecond() {
+        return mSentPerSecond;
+    }
+
+    /**
+     * Read how many writes the cache skipped over the last second.
+     * @return Calls per second
+     */
+    public static double getSkippedPerSecond() {
+        return mSkippedPerSecond;
+    }
+
+    /** Update the rates once a second and push them to the dashboard. */
+    public static void pushDashboardValues() {
+        long now = RobotController.getFPGATime();
+        long window = now - mWindowStart;
+        if(window < 1000000) return;
+
+        mSentPerSecond = mSent.sumThenReset() * 1.0e6 / window;
+        mSkippedPerSecond = mSkipped.sumThenReset() * 1.0e6 / window;
+        mWindowStart = now;
+
+        entCalls_Sent.set(mSentPerSecond);
+        entCalls_Skipped.set(mSkippedPerSecond);
+    }
+}
@@ -0,0 +1,81 @@
+package frc.robot.utilities;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Record Queue
+ * <p>
+ * Hands fixed-width records of numbers from one writer thread to one reader thread, without
+ * blocking or allocating on either side. Records are copied into a preallocated ring, if the
+ * reader falls so far behind that the ring is full, new records are dropped and counted.
+ * <pre>
+ * //Writer
+ * mRecord[0] = value;
+ * queue.add(mRecord);
+ *
+ * //Reader
+ * while(queue.poll(mRecord))
+ *     use(mRecord[0]);
+ * </pre>
+ */
+public final class RecordQueue {
+    private final int mWidth;
+    private final int mMask;
+    private final double[] mRing;
+
+    //Next record to write, only the writer moves it
+    private final AtomicLong mHead = new AtomicLong(0);
+    //Next record to read, only the reader moves it
+    private final AtomicLong mTail = new AtomicLong(0);
+    private final AtomicLong mDropped = new AtomicLong(0);
+
+    /**
+     * @param width Numbers in each record
+     * @param capacity Records the ring holds, rounded up to a power of two
+     */
+    public RecordQueue(int width, int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        mWidth = width;
+        mMask = size - 1;
+        mRing = new double[width * size];
+    }
+
+    /**
+     * Copy a record into the queue. Only one thread may ever add.
+     * @param record Record to copy, at least as wide as the queue
+     * @return False if the queue was full and the record was dropped
+     */
+    public boolean add(double[] record) {
+        long head = mHead.getPlain();
+        if(head - mTail.getAcquire() > mMask){
+            mDropped.setOpaque(mDropped.getPlain() + 1);
+            return false;
+        }
+
+        System.arraycopy(record, 0, mRing, (int)(head & mMask) * mWidth, mWidth);
+        mHead.setRelease(head + 1);
+        return true;
+    }
+
+    /**
+     * Copy the oldest record out of the queue. Only one thread may ever poll.
+     * @param record Array to copy the record into, at least as wide as the queue
+     * @return False if the queue was empty
+     */
+    public boolean poll(double[] record) {
+        long tail = mTail.getPlain();
+        if(tail == mHead.getAcquire()) return false;
+
+        System.arraycopy(mRing, (int)(tail & mMask) * mWidth, record, 0, mWidth);
+        mTail.setRelease(tail + 1);
+        return true;
+    }
+
+    /**
+     * Read how many records were dropped because the queue was full.
+     * @return Dropped records since the queue was made
+     */
+    public long getDropped() {
+        return mDropped.getOpaque();
+    }
+}
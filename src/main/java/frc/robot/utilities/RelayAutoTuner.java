@@ -0,0 +1,185 @@
+package frc.robot.utilities;
+
+/**
+ * Relay Auto-Tuner
+ * <p>
+ * Finds PID gains for a loop by relay feedback. Instead of a PID, the output is switched between
+ * plus and minus a fixed amplitude each time the measurement crosses the setpoint, which makes the
+ * loop oscillate steadily. The size and period of that oscillation give the ultimate gain and
+ * period, and the gains are worked out from those with the Ziegler-Nichols no overshoot rule.
+ * <p>
+ * The first oscillation is thrown away while the loop settles into its swing. The tune fails if
+ * the measurement strays too far from the setpoint, or if it runs out of time.
+ */
+public class RelayAutoTuner {
+
+    /** Where the tune is at. */
+    public enum State {
+        IDLE("Idle"),
+        RUNNING("Running"),
+        DONE("Done"),
+        FAILED("Failed");
+
+        public final String label;
+        private State(String label) {
+            this.label = label;
+        }
+
+        @Override public String toString() {
+            return label;
+        }
+    }
+
+    private final double mAmplitude;
+    private final double mHysteresis;
+    private final double mMaxExcursion;
+    private final int mCycles;
+    private final double mTimeout;
+
+    private State mState = State.IDLE;
+    private double mSetpoint = 0.0;
+    private double mStartTime = 0.0;
+    private double mOutput = 0.0;
+
+    //Current oscillation
+    private double mCycleStartTime = Double.NaN;
+    private double mCycleMax = Double.NEGATIVE_INFINITY;
+    private double mCycleMin = Double.POSITIVE_INFINITY;
+
+    //Completed oscillations
+    private int mCycleCount = 0;
+    private double mAmplitudeSum = 0.0;
+    private double mPeriodSum = 0.0;
+
+    private double mUltimateGain = 0.0;
+    private double mUltimatePeriod = 0.0;
+
+    /**
+     * @param amplitude Output either side of zero while oscillating
+     * @param hysteresis How far past the setpoint the measurement goes before the output switches, to ignore noise
+     * @param maxExcursion How far from the setpoint the measurement may go before the tune is stopped
+     * @param cycles Number of oscillations to average, after the first
+     * @param timeout Longest the tune may run in seconds
+     */
+    public RelayAutoTuner(double amplitude, double hysteresis, double maxExcursion, int cycles, double timeout) {
+        mAmplitude = amplitude;
+        mHysteresis = hysteresis;
+        mMaxExcursion = maxExcursion;
+        mCycles = cycles;
+        mTimeout = timeout;
+    }
+
+    /**
+     * Start a new tune.
+     * @param setpoint Measurement to oscillate around
+     * @param timestamp Current time in seconds
+     */
+    public void start(double setpoint, double timestamp) {
+        mState = State.RUNNING;
+        mSetpoint = setpoint;
+        mStartTime = timestamp;
+        mOutput = mAmplitude;
+        mCycleStartTime = Double.NaN;
+        mCycleMax = Double.NEGATIVE_INFINITY;
+        mCycleMin = Double.POSITIVE_INFINITY;
+        mCycleCount = 0;
+        mAmplitudeSum = 0.0;
+        mPeriodSum = 0.0;
+    }
+
+    /** Stop the tune without a result. */
+    public void stop() {
+        if(mState == State.RUNNING) mState = State.IDLE;
+        mOutput = 0.0;
+    }
+
+    /**
+     * Run one loop of the tune.
+     * @param measurement Current measurement
+     * @param timestamp Current time in seconds
+     * @return Output to apply, zero once the tune is over
+     */
+    public double calculate(double measurement, double timestamp) {
+        if(mState != State.RUNNING) return 0.0;
+
+        if(Math.abs(measurement - mSetpoint) > mMaxExcursion || timestamp - mStartTime > mTimeout){
+            mState = State.FAILED;
+            mOutput = 0.0;
+            return 0.0;
+        }
+
+        mCycleMax = Math.max(mCycleMax, measurement);
+        mCycleMin = Math.min(mCycleMin, measurement);
+
+        if(mOutput > 0.0 && measurement > mSetpoint + mHysteresis){
+            mOutput = -mAmplitude;
+        } else if(mOutput < 0.0 && measurement < mSetpoint - mHysteresis){
+            //Each switch back to positive ends one full oscillation
+            mOutput = mAmplitude;
+            if(!Double.isNaN(mCycleStartTime)) finishCycle(timestamp);
+            mCycleStartTime = timestamp;
+            mCycleMax = Double.NEGATIVE_INFINITY;
+            mCycleMin = Double.POSITIVE_INFINITY;
+        }
+
+        return mState == State.RUNNING ? mOutput : 0.0;
+    }
+
+    /**
+     * Record an oscillation, and work out the result once there are enough.
+     * @param timestamp Time the oscillation ended
+     */
+    private void finishCycle(double timestamp) {
+        mAmplitudeSum += (mCycleMax - mCycleMin) / 2.0;
+        mPeriodSum += timestamp - mCycleStartTime;
+        mCycleCount++;
+        if(mCycleCount < mCycles) return;
+
+        //Hysteresis makes the swing look bigger than the relay alone would make it
+        double amplitude = mAmplitudeSum / mCycleCount;
+        double corrected = Math.sqrt(Math.max(amplitude * amplitude - mHysteresis * mHysteresis, 1.0e-9));
+        mUltimateGain = 4.0 * mAmplitude / (Math.PI * corrected);
+        mUltimatePeriod = mPeriodSum / mCycleCount;
+        mState = State.DONE;
+        mOutput = 0.0;
+    }
+
+    /**
+     * Read where the tune is at.
+     * @return State of the tune
+     */
+    public State getState() {
+        return mState;
+    }
+
+    /**
+     * Read the gain at which the loop oscillates on its own.
+     * @return Ultimate gain, once the tune is done
+     */
+    public double getUltimateGain() {
+        return mUltimateGain;
+    }
+
+    /**
+     * Read the period the loop oscillates at.
+     * @return Ultimate period in seconds, once the tune is done
+     */
+    public double getUltimatePeriod() {
+        return mUltimatePeriod;
+    }
+
+    /** @return Proportional gain, once the tune is done. */
+    public double getP() {
+        return 0.2 * mUltimateGain;
+    }
+
+    /** @return Integral gain, per second, once the tune is done. */
+    public double getI() {
+        return mUltimatePeriod > 0.0 ? 0.4 * mUltimateGain / mUltimatePeriod : 0.0;
+    }
+
+    /** @return Derivative gain, in seconds, once the tune is done. */
+    public double getD() {
+        return 0.0667 * mUltimateGain * mUltimatePeriod;
+    }
+}
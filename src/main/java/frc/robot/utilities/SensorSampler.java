@@ -0,0 +1,42 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.wpilibj.Notifier;
+
+/**
+ * The Sensor Sampler
+ * <p>
+ * Reads sensors on a Notifier at 200 Hz, independent of the robot loop. Each subsystem supplies
+ * a task that reads its sensors and publishes them through a {@link SeqLock}, and then copies the
+ * latest sample at the start of each loop. Readings are never more than 5 ms old and are
+ * timestamped when they are taken, not when the loop gets to them.
+ */
+public class SensorSampler {
+    /** Time between samples, in seconds. */
+    public static final double PERIOD = 0.005;
+    /** Status frame period, in milliseconds, for sensors read through a Falcon. */
+    public static final int STATUS_FRAME_PERIOD = 5;
+
+    private static final Notifier ntfSampler = new Notifier(SensorSampler::run);
+    private static volatile Runnable[] mTasks = new Runnable[0];
+
+    /** Do not make an instance of the sampler. */
+    private SensorSampler(){}
+
+    /**
+     * Start sampling. Calling it again does nothing.
+     * @param tasks Tasks that each read and publish one subsystem's sensors
+     */
+    public static synchronized void start(Runnable... tasks) {
+        if(mTasks.length > 0) return;
+
+        mTasks = tasks.clone();
+        ntfSampler.setName("Sensor Sampler");
+        ntfSampler.startPeriodic(PERIOD);
+    }
+
+    /** Take one sample of everything. */
+    private static void run() {
+        for(Runnable task : mTasks)
+            task.run();
+    }
+}
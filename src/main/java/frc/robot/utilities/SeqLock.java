@@ -0,0 +1,62 @@
+package frc.robot.utilities;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sequence Lock
+ * <p>
+ * Guards a group of plain fields shared between one writer thread and any number of readers,
+ * without blocking either side. The version is odd while a write is in progress, readers copy
+ * the fields and try again if the version moved while they were copying.
+ * <pre>
+ * //Writer
+ * lock.beginWrite();
+ * mShared.value = value;
+ * lock.endWrite();
+ *
+ * //Reader
+ * long version;
+ * do{
+ *     version = lock.beginRead();
+ *     value = mShared.value;
+ * } while(lock.retry(version));
+ * </pre>
+ */
+public final class SeqLock {
+    private final AtomicLong mVersion = new AtomicLong(0);
+
+    /** Mark the start of a write. Only one thread may ever write. */
+    public void beginWrite() {
+        mVersion.setOpaque(mVersion.getPlain() + 1);
+        //Keep the field writes after the version goes odd
+        VarHandle.storeStoreFence();
+    }
+
+    /** Mark the end of a write, publishing the fields to readers. */
+    public void endWrite() {
+        mVersion.setRelease(mVersion.getPlain() + 1);
+    }
+
+    /**
+     * Mark the start of a read, waiting out any write in progress.
+     * @return Version to check with {@link #retry(long)}
+     */
+    public long beginRead() {
+        long version;
+        while(((version = mVersion.getAcquire()) & 1) != 0)
+            Thread.onSpinWait();
+        return version;
+    }
+
+    /**
+     * Check whether the fields changed while they were being read.
+     * @param version Version returned by {@link #beginRead()}
+     * @return True if the copy is torn and has to be read again
+     */
+    public boolean retry(long version) {
+        //Keep the field reads before the version check
+        VarHandle.loadLoadFence();
+        return mVersion.getPlain() != version;
+    }
+}
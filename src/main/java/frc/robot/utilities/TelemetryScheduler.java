@@ -0,0 +1,139 @@
+package frc.robot.utilities;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Telemetry Scheduler
+ * <p>
+ * Publishes registered values on a rate tier instead of every loop. A value is only sent when it
+ * has moved further than its deadband since it was last sent, and no more than a fixed number of
+ * values go out each loop. Values held back by that cap are first in line on the next loop.
+ */
+public class TelemetryScheduler {
+
+    /** How often a value is checked for changes. */
+    public enum Rate {
+        /** Every loop, 50 Hz. */
+        FAST(1),
+        /** Every fifth loop, 10 Hz. */
+        MEDIUM(5),
+        /** Every tenth loop, 5 Hz. */
+        SLOW(10);
+
+        public final int cycles;
+        private Rate(int cycles) {
+            this.cycles = cycles;
+        }
+    }
+
+    /** Destination of a published number. */
+    @FunctionalInterface
+    public interface DoubleSink {
+        void set(double value);
+    }
+
+    /** Destination of a published flag. */
+    @FunctionalInterface
+    public interface BooleanSink {
+        void set(boolean value);
+    }
+
+    /** A single registered value. */
+    private static final class Channel {
+        private final DoubleSupplier source;
+        private final DoubleSink sink;
+        private final double deadband;
+        private final int cycles;
+
+        private double lastValue = Double.NaN;
+        private long nextCycle;
+
+        private Channel(DoubleSupplier source, DoubleSink sink, double deadband, int cycles, long firstCycle) {
+            this.source = source;
+            this.sink = sink;
+            this.deadband = deadband;
+            this.cycles = cycles;
+            this.nextCycle = firstCycle;
+        }
+    }
+
+    private final int mMaxPublishes;
+
+    private Channel[] mChannels = new Channel[0];
+    private int mCursor = 0;
+    private long mCycle = 0;
+    private int mLastPublishes = 0;
+
+    /**
+     * @param maxPublishes Most values to send in one loop
+     */
+    public TelemetryScheduler(int maxPublishes) {
+        mMaxPublishes = maxPublishes;
+    }
+
+    /**
+     * Register a number to publish.
+     * @param sink Where the value is published
+     * @param source Where the value is read from
+     * @param rate How often the value is checked
+     * @param deadband Smallest change worth sending
+     */
+    public void addDouble(DoubleSink sink, DoubleSupplier source, Rate rate, double deadband) {
+        //Stagger the first check of slower channels so they do not all land on the same loop
+        Channel channel = new Channel(source, sink, deadband, rate.cycles, mCycle + (mChannels.length % rate.cycles));
+
+        mChannels = Arrays.copyOf(mChannels, mChannels.length + 1);
+        mChannels[mChannels.length - 1] = channel;
+    }
+
+    /**
+     * Register a flag to publish. Flags are sent on every change.
+     * @param sink Where the value is published
+     * @param source Where the value is read from
+     * @param rate How often the value is checked
+     */
+    public void addBoolean(BooleanSink sink, BooleanSupplier source, Rate rate) {
+        addDouble(value -> sink.set(value != 0.0), () -> source.getAsBoolean() ? 1.0 : 0.0, rate, 0.0);
+    }
+
+    /**
+     * Read how many values were sent on the last loop.
+     * @return Number of values published
+     */
+    public int getLastPublishCount() {
+        return mLastPublishes;
+    }
+
+    /** Check every channel that is due and publish the ones that changed. */
+    public void periodic() {
+        int publishes = 0;
+        int deferred = -1;
+
+        for(int i = 0; i < mChannels.length; i++){
+            int index = (mCursor + i) % mChannels.length;
+            Channel channel = mChannels[index];
+            if(mCycle < channel.nextCycle) continue;
+
+            double value = channel.source.getAsDouble();
+            boolean isChanged = Double.isNaN(channel.lastValue) || Math.abs(value - channel.lastValue) > channel.deadband;
+
+            if(isChanged){
+                if(publishes >= mMaxPublishes){
+                    //Out of budget, leave it due so it goes first next loop
+                    if(deferred < 0) deferred = index;
+                    continue;
+                }
+                channel.sink.set(value);
+                channel.lastValue = value;
+                publishes++;
+            }
+            channel.nextCycle = mCycle + channel.cycles;
+        }
+
+        mCursor = deferred < 0 ? 0 : deferred;
+        mLastPublishes = publishes;
+        mCycle++;
+    }
+}
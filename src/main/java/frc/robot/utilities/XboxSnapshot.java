@@ -0,0 +1,136 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Xbox Controller Snapshot
+ * <p>
+ * Holds one loop's reading of an Xbox controller, taken once by {@link #update()}. Axes are kept
+ * in an array and buttons in a bitmask, so reading them is free and every caller in a loop sees
+ * the same state. Pressed and released edges compare the bitmask against the last loop's.
+ * <p>
+ * Triggers are also kept as buttons, pressed past {@value #TRIGGER_THRESHOLD}.
+ */
+public class XboxSnapshot {
+    /** Button masks, combine them with | to check several at once. */
+    public static final int A = 1 << 0;
+    public static final int B = 1 << 1;
+    public static final int X = 1 << 2;
+    public static final int Y = 1 << 3;
+    public static final int LEFT_BUMPER = 1 << 4;
+    public static final int RIGHT_BUMPER = 1 << 5;
+    public static final int BACK = 1 << 6;
+    public static final int START = 1 << 7;
+    public static final int LEFT_STICK = 1 << 8;
+    public static final int RIGHT_STICK = 1 << 9;
+    public static final int LEFT_TRIGGER = 1 << 10;
+    public static final int RIGHT_TRIGGER = 1 << 11;
+
+    /** How far a trigger has to be pulled to count as pressed. */
+    public static final double TRIGGER_THRESHOLD = 0.5;
+
+    //Driver Station axis and button layout of an Xbox controller
+    private static final int AXIS_LEFT_X = 0;
+    private static final int AXIS_LEFT_Y = 1;
+    private static final int AXIS_LEFT_TRIGGER = 2;
+    private static final int AXIS_RIGHT_TRIGGER = 3;
+    private static final int AXIS_RIGHT_X = 4;
+    private static final int AXIS_RIGHT_Y = 5;
+    private static final int AXIS_COUNT = 6;
+    private static final int BUTTON_MASK = (1 << 10) - 1;
+
+    private final int mPort;
+    private final double[] mAxes = new double[AXIS_COUNT];
+    private int mButtons = 0;
+    private int mLastButtons = 0;
+    private int mPOV = -1;
+
+    /**
+     * @param port Driver Station port of the controller
+     */
+    public XboxSnapshot(int port) {
+        mPort = port;
+    }
+
+    /** Read the controller from the Driver Station. Call once per loop, before anything reads it. */
+    public void update() {
+        mLastButtons = mButtons;
+
+        //An unplugged controller reads as centered and released, without the Driver Station warning about missing axes
+        int axisCount = Math.min(DriverStation.getStickAxisCount(mPort), AXIS_COUNT);
+        for(int i = 0; i < AXIS_COUNT; i++)
+            mAxes[i] = i < axisCount ? DriverStation.getStickAxis(mPort, i) : 0.0;
+
+        int buttons = DriverStation.getStickButtons(mPort) & BUTTON_MASK;
+        if(mAxes[AXIS_LEFT_TRIGGER] > TRIGGER_THRESHOLD) buttons |= LEFT_TRIGGER;
+        if(mAxes[AXIS_RIGHT_TRIGGER] > TRIGGER_THRESHOLD) buttons |= RIGHT_TRIGGER;
+        mButtons = buttons;
+
+        mPOV = DriverStation.getStickPOVCount(mPort) > 0 ? DriverStation.getStickPOV(mPort, 0) : -1;
+    }
+
+    /**
+     * Read whether any of the buttons are held.
+     * @param buttons Button masks
+     * @return True if any are held
+     */
+    public boolean get(int buttons) {
+        return (mButtons & buttons) != 0;
+    }
+
+    /**
+     * Read whether any of the buttons went down this loop.
+     * @param buttons Button masks
+     * @return True if any were pressed since the last loop
+     */
+    public boolean getPressed(int buttons) {
+        return (mButtons & ~mLastButtons & buttons) != 0;
+    }
+
+    /**
+     * Read whether any of the buttons came up this loop.
+     * @param buttons Button masks
+     * @return True if any were released since the last loop
+     */
+    public boolean getReleased(int buttons) {
+        return (~mButtons & mLastButtons & buttons) != 0;
+    }
+
+    /**
+     * Read the D-pad.
+     * @return Angle in degrees clockwise from up, -1 when not pressed
+     */
+    public int getPOV() {
+        return mPOV;
+    }
+
+    /** @return [-1.0, 1.0] Left stick, right positive. */
+    public double getLeftX() {
+        return mAxes[AXIS_LEFT_X];
+    }
+
+    /** @return [-1.0, 1.0] Left stick, up positive. */
+    public double getLeftY() {
+        return -mAxes[AXIS_LEFT_Y];
+    }
+
+    /** @return [-1.0, 1.0] Right stick, right positive. */
+    public double getRightX() {
+        return mAxes[AXIS_RIGHT_X];
+    }
+
+    /** @return [-1.0, 1.0] Right stick, up positive. */
+    public double getRightY() {
+        return -mAxes[AXIS_RIGHT_Y];
+    }
+
+    /** @return [0.0, 1.0] How far the left trigger is pulled. */
+    public double getLeftTriggerAxis() {
+        return mAxes[AXIS_LEFT_TRIGGER];
+    }
+
+    /** @return [0.0, 1.0] How far the right trigger is pulled. */
+    public double getRightTriggerAxis() {
+        return mAxes[AXIS_RIGHT_TRIGGER];
+    }
+}